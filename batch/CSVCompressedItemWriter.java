@@ -0,0 +1,114 @@
+package com.synergensolutions.sbsservice.reports.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import com.synergensolutions.sbsservice.common.batch.utils.CSVLineAggregator;
+import com.synergensolutions.sbsservice.common.batch.writer.PreparedItemStreamWriter;
+
+// same layout as CSVFlatFileItemWriter streamed through the compression of the output format, a compressed stream
+// cannot be truncated to the last commit so every run writes the file from the start. A failed step leaves no
+// file behind, the footer and the compression trailer are only written once the step completed
+public class CSVCompressedItemWriter<T> implements PreparedItemStreamWriter<T> {
+
+	private static final char DELIMITER = ';';
+
+	private final File outputFile;
+	private final ReportOutputFormat outputFormat;
+	private final CSVLineAggregator<T> lineAggregator;
+	private final String header;
+	private final String footer;
+
+	private OutputStream fileStream;
+	private Writer writer;
+
+	public CSVCompressedItemWriter(File outputFile, ReportOutputFormat outputFormat, String[] filedNames,
+			String header, String footer) {
+		super();
+		this.outputFile = outputFile;
+		this.outputFormat = outputFormat;
+		this.lineAggregator = new CSVLineAggregator<>(filedNames, DELIMITER);
+		this.header = header;
+		this.footer = footer;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		try {
+			fileStream = new FileOutputStream(outputFile, false);
+			writer = new OutputStreamWriter(outputFormat.wrap(new BufferedOutputStream(fileStream)),
+					StandardCharsets.UTF_8);
+			writer.write(CSVFlatFileItemWriter.SEPARATOR_HINT);
+			writer.write(header);
+			writer.write(System.lineSeparator());
+		} catch (IOException e) {
+			throw new ItemStreamException("Failed to open " + outputFile.getAbsolutePath(), e);
+		}
+	}
+
+	@Override
+	public void write(List<? extends T> items) throws Exception {
+		writePrepared(items, prepare(items));
+	}
+
+	@Override
+	public String prepare(List<? extends T> items) {
+		StringBuilder lines = new StringBuilder();
+		for (T item : items) {
+			lines.append(lineAggregator.aggregate(item)).append(System.lineSeparator());
+		}
+		return lines.toString();
+	}
+
+	@Override
+	public void writePrepared(List<? extends T> items, String lines) throws Exception {
+		writer.write(lines);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		if (writer == null) {
+			return;
+		}
+		try {
+			if (stepCompleted()) {
+				writer.write(footer);
+				writer.close();
+			} else {
+				// the buffered and compressed tail is dropped with the file
+				fileStream.close();
+				Files.deleteIfExists(outputFile.toPath());
+			}
+		} catch (IOException e) {
+			throw new ItemStreamException("Failed to close " + outputFile.getAbsolutePath(), e);
+		} finally {
+			writer = null;
+			fileStream = null;
+		}
+	}
+
+	// the step status is final when the streams are closed, outside a step the file is always finished
+	private boolean stepCompleted() {
+		StepContext stepContext = StepSynchronizationManager.getContext();
+		return stepContext == null || stepContext.getStepExecution().getStatus() == BatchStatus.COMPLETED;
+	}
+
+}
@@ -3,36 +3,31 @@ package com.synergensolutions.sbsservice.reports.writer;
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.List;
 
 import org.springframework.batch.item.file.FlatFileFooterCallback;
 import org.springframework.batch.item.file.FlatFileHeaderCallback;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
-import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
 import org.springframework.core.io.FileSystemResource;
 
-public class CSVFlatFileItemWriter<T> extends FlatFileItemWriter<T> {
+import com.synergensolutions.sbsservice.common.batch.utils.CSVLineAggregator;
+import com.synergensolutions.sbsservice.common.batch.writer.PreparedItemStreamWriter;
 
-	private static final String DELIMITER = ";";
+public class CSVFlatFileItemWriter<T> extends FlatFileItemWriter<T> implements PreparedItemStreamWriter<T> {
 
-	public CSVFlatFileItemWriter(File outputFile, boolean append, String[] filedNames, String header, String footer) {
-		super();
-		setResource(new FileSystemResource(outputFile));
-		setAppendAllowed(append);
+	private static final char DELIMITER = ';';
 
-		BeanWrapperFieldExtractor<T> beanWrapperFieldExtractor = new BeanWrapperFieldExtractor<>();
-		beanWrapperFieldExtractor.setNames(filedNames);
+	static final String SEPARATOR_HINT = "sep=" + DELIMITER + "\n";
 
-		DelimitedLineAggregator<T> delimitedLineAggregator = new DelimitedLineAggregator<>();
-		delimitedLineAggregator.setDelimiter(DELIMITER);
-		delimitedLineAggregator.setFieldExtractor(beanWrapperFieldExtractor);
+	private String preparedLines;
 
-		setLineAggregator(delimitedLineAggregator);
+	public CSVFlatFileItemWriter(File outputFile, boolean append, String[] filedNames, String header, String footer) {
+		this(outputFile, append, filedNames);
 
 		setHeaderCallback(new FlatFileHeaderCallback() {
 			@Override
 			public void writeHeader(Writer writer) throws IOException {
-				writer.write("sep=;\n");
+				writer.write(SEPARATOR_HINT);
 				writer.write(header);
 			}
 		});
@@ -44,4 +39,37 @@ public class CSVFlatFileItemWriter<T> extends FlatFileItemWriter<T> {
 			}
 		});
 	}
+
+	// part file of a partitioned step, header and footer are written once by CSVPartMergeTasklet
+	public CSVFlatFileItemWriter(File outputFile, String[] filedNames) {
+		this(outputFile, false, filedNames);
+	}
+
+	private CSVFlatFileItemWriter(File outputFile, boolean append, String[] filedNames) {
+		super();
+		setResource(new FileSystemResource(outputFile));
+		setAppendAllowed(append);
+		setLineAggregator(new CSVLineAggregator<>(filedNames, DELIMITER));
+	}
+
+	// FlatFileItemWriter only aggregates the lines in doWrite, the output state is left to write
+	@Override
+	public String prepare(List<? extends T> items) {
+		return super.doWrite(items);
+	}
+
+	@Override
+	public void writePrepared(List<? extends T> items, String lines) throws Exception {
+		preparedLines = lines;
+		try {
+			write(items);
+		} finally {
+			preparedLines = null;
+		}
+	}
+
+	@Override
+	public String doWrite(List<? extends T> items) {
+		return preparedLines != null ? preparedLines : super.doWrite(items);
+	}
 }
@@ -0,0 +1,109 @@
+package com.synergensolutions.sbsservice.reports.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class CSVPartMergeTasklet implements Tasklet {
+
+	// step scoped part writers name their files after the job instance, so a restart finds the parts of its
+	// completed partitions and an earlier run of the same output path does not add its leftovers
+	public static final String JOB_INSTANCE_ID_EXPRESSION = "#{stepExecution.jobExecution.jobId}";
+
+	private static final String PART_SUFFIX = ".part";
+	private static final String PART_INDEX_SEPARATOR = "-";
+
+	private final File outputFile;
+	private final String header;
+	private final String footer;
+	private final ReportOutputFormat outputFormat;
+
+	public CSVPartMergeTasklet(File outputFile, String header, String footer) {
+		this(outputFile, header, footer, ReportOutputFormat.CSV);
+	}
+
+	public CSVPartMergeTasklet(File outputFile, String header, String footer, ReportOutputFormat outputFormat) {
+		super();
+		this.outputFile = outputFile;
+		this.header = header;
+		this.footer = footer;
+		this.outputFormat = outputFormat;
+	}
+
+	public static File partFile(File outputFile, long jobInstanceId, int partitionIndex) {
+		return new File(outputFile.getParentFile(), partPrefix(outputFile, jobInstanceId) + partitionIndex);
+	}
+
+	@Override
+	public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+		long jobInstanceId = chunkContext.getStepContext().getStepExecution().getJobExecution().getJobId();
+		deleteStaleParts(jobInstanceId);
+		List<File> parts = findParts(jobInstanceId);
+
+		try (OutputStream outputStream = outputFormat
+				.wrap(new BufferedOutputStream(new FileOutputStream(outputFile, false)))) {
+			write(outputStream, CSVFlatFileItemWriter.SEPARATOR_HINT + header + System.lineSeparator());
+			for (File part : parts) {
+				Files.copy(part.toPath(), outputStream);
+			}
+			write(outputStream, footer);
+		}
+
+		parts.forEach(part -> {
+			if (!part.delete()) {
+				log.warn("Failed to delete CSV part file : " + part.getAbsolutePath());
+			}
+		});
+		log.info("Merged " + parts.size() + " CSV parts into " + outputFile.getAbsolutePath());
+		return RepeatStatus.FINISHED;
+	}
+
+	private static String partPrefix(File outputFile, long jobInstanceId) {
+		return outputFile.getName() + PART_SUFFIX + jobInstanceId + PART_INDEX_SEPARATOR;
+	}
+
+	private List<File> findParts(long jobInstanceId) {
+		String prefix = partPrefix(outputFile, jobInstanceId);
+		return Arrays.stream(listFiles(name -> name.startsWith(prefix) && name.length() > prefix.length()))
+				.sorted(Comparator.comparingInt(f -> Integer.parseInt(f.getName().substring(prefix.length()))))
+				.collect(Collectors.toList());
+	}
+
+	// parts of other job instances that wrote to the same output path and never got merged
+	private void deleteStaleParts(long jobInstanceId) {
+		String anyPrefix = outputFile.getName() + PART_SUFFIX;
+		String ownPrefix = partPrefix(outputFile, jobInstanceId);
+		for (File part : listFiles(name -> name.startsWith(anyPrefix) && !name.startsWith(ownPrefix))) {
+			if (part.delete()) {
+				log.info("Deleted stale CSV part file : " + part.getAbsolutePath());
+			}
+		}
+	}
+
+	private File[] listFiles(Predicate<String> nameFilter) {
+		File[] files = outputFile.getAbsoluteFile().getParentFile().listFiles((dir, name) -> nameFilter.test(name));
+		return files == null ? new File[0] : files;
+	}
+
+	private void write(OutputStream outputStream, String value) throws IOException {
+		outputStream.write(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
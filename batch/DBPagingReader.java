@@ -0,0 +1,54 @@
+package com.synergensolutions.sbsservice.reports.reader;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.PagingQueryProvider;
+import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.synergensolutions.sbsservice.reports.exception.GenerateReportException;
+
+// pages by sort key (WHERE sortKey > :lastKey ORDER BY sortKey LIMIT pageSize) instead of holding one cursor open
+public class DBPagingReader<T> extends JdbcPagingItemReader<T> {
+
+	public DBPagingReader(DataSource dataSource, String selectClause, String fromClause, String sortKey,
+			int pageSize, int fetchSize, RowMapper<T> rowMapper) {
+		this(dataSource, selectClause, fromClause, null, Collections.emptyMap(), sortKey, pageSize, fetchSize,
+				rowMapper);
+	}
+
+	public DBPagingReader(DataSource dataSource, String selectClause, String fromClause, String whereClause,
+			Map<String, Object> parameterValues, String sortKey, int pageSize, int fetchSize,
+			RowMapper<T> rowMapper) {
+		super();
+		setDataSource(dataSource);
+		setQueryProvider(createQueryProvider(dataSource, selectClause, fromClause, whereClause, sortKey));
+		setParameterValues(parameterValues);
+		setPageSize(pageSize);
+		setFetchSize(fetchSize);
+		setRowMapper(rowMapper);
+		setName(DBPagingReader.class.getSimpleName() + "." + fromClause.trim());
+	}
+
+	private static PagingQueryProvider createQueryProvider(DataSource dataSource, String selectClause,
+			String fromClause, String whereClause, String sortKey) {
+		SqlPagingQueryProviderFactoryBean queryProviderFactory = new SqlPagingQueryProviderFactoryBean();
+		queryProviderFactory.setDataSource(dataSource);
+		queryProviderFactory.setSelectClause(selectClause);
+		queryProviderFactory.setFromClause(fromClause);
+		queryProviderFactory.setWhereClause(whereClause);
+		queryProviderFactory.setSortKeys(Collections.singletonMap(sortKey, Order.ASCENDING));
+		try {
+			return queryProviderFactory.getObject();
+		} catch (Exception e) {
+			throw new GenerateReportException("Failed to create paging query for " + fromClause + " : "
+					+ e.getLocalizedMessage());
+		}
+	}
+
+}
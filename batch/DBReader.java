@@ -1,8 +1,11 @@
 package com.synergensolutions.sbsservice.reports.reader;
 
 import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
 
+import com.synergensolutions.sbsservice.common.batch.utils.ResultSetRowMapper;
+
 import javax.sql.DataSource;
 
 public class DBReader<T> extends JdbcCursorItemReader<T> {
@@ -14,4 +17,13 @@ public class DBReader<T> extends JdbcCursorItemReader<T> {
 		setRowMapper(rowMapper);
 	}
 
+	public DBReader(DataSource dataSource, String query, Class<T> rowType) {
+		this(dataSource, query, ResultSetRowMapper.of(rowType));
+	}
+
+	public DBReader(DataSource dataSource, String query, Object[] queryArgs, RowMapper<T> rowMapper) {
+		this(dataSource, query, rowMapper);
+		setPreparedStatementSetter(new ArgumentPreparedStatementSetter(queryArgs));
+	}
+
 }
@@ -0,0 +1,158 @@
+package com.synergensolutions.sbsservice.reports.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+// builds the full report from the cached segment of earlier runs plus the delta rows of this run, a segment row is
+// dropped when the delta has a row with the same key, the merged rows become the segment of the next run
+@Slf4j
+public class DeltaSegmentMergeTasklet implements Tasklet {
+
+	private static final char DELIMITER = ';';
+	private static final char QUOTE = '"';
+	private static final String NEXT_SEGMENT_SUFFIX = ".next";
+	private static final String DELTA_SUFFIX = ".delta";
+
+	private final File segmentFile;
+	private final File deltaFile;
+	private final File outputFile;
+	private final int keyColumn;
+	private final String header;
+	private final String footer;
+	private final ReportOutputFormat outputFormat;
+
+	public DeltaSegmentMergeTasklet(File segmentFile, File deltaFile, File outputFile, int keyColumn, String header,
+			String footer, ReportOutputFormat outputFormat) {
+		super();
+		this.segmentFile = segmentFile;
+		this.deltaFile = deltaFile;
+		this.outputFile = outputFile;
+		this.keyColumn = keyColumn;
+		this.header = header;
+		this.footer = footer;
+		this.outputFormat = outputFormat;
+	}
+
+	// written by the delta step without header, next to the output file
+	public static File deltaFile(File outputFile) {
+		return new File(outputFile.getParentFile(), outputFile.getName() + DELTA_SUFFIX);
+	}
+
+	@Override
+	public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+		// the delta only covers the rows changed since the watermark, so its keys fit in memory
+		Set<String> deltaKeys = new HashSet<>();
+		try (BufferedReader delta = Files.newBufferedReader(deltaFile.toPath(), StandardCharsets.UTF_8)) {
+			String record;
+			while ((record = readRecord(delta)) != null) {
+				deltaKeys.add(key(record));
+			}
+		}
+
+		File nextSegmentFile = new File(segmentFile.getAbsolutePath() + NEXT_SEGMENT_SUFFIX);
+		long keptRows = 0;
+		try (Writer output = new OutputStreamWriter(
+				outputFormat.wrap(new BufferedOutputStream(new FileOutputStream(outputFile, false))),
+				StandardCharsets.UTF_8);
+				BufferedWriter nextSegment = Files.newBufferedWriter(nextSegmentFile.toPath(),
+						StandardCharsets.UTF_8)) {
+			output.write(CSVFlatFileItemWriter.SEPARATOR_HINT + header + System.lineSeparator());
+
+			if (segmentFile.exists()) {
+				try (BufferedReader segment = Files.newBufferedReader(segmentFile.toPath(), StandardCharsets.UTF_8)) {
+					String record;
+					while ((record = readRecord(segment)) != null) {
+						if (!deltaKeys.contains(key(record))) {
+							writeRecord(record, output, nextSegment);
+							keptRows++;
+						}
+					}
+				}
+			}
+			try (BufferedReader delta = Files.newBufferedReader(deltaFile.toPath(), StandardCharsets.UTF_8)) {
+				String record;
+				while ((record = readRecord(delta)) != null) {
+					writeRecord(record, output, nextSegment);
+				}
+			}
+			output.write(footer);
+		}
+
+		Files.move(nextSegmentFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.deleteIfExists(deltaFile.toPath());
+		log.info("Merged " + keptRows + " cached rows with " + deltaKeys.size() + " changed rows into "
+				+ outputFile.getAbsolutePath());
+		return RepeatStatus.FINISHED;
+	}
+
+	// a record spans several lines while a quoted field is still open
+	private String readRecord(BufferedReader reader) throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			return null;
+		}
+		StringBuilder record = new StringBuilder(line);
+		while (hasOpenQuote(record)) {
+			String next = reader.readLine();
+			if (next == null) {
+				break;
+			}
+			record.append('\n').append(next);
+		}
+		return record.toString();
+	}
+
+	private boolean hasOpenQuote(CharSequence record) {
+		boolean inQuotes = false;
+		for (int i = 0; i < record.length(); i++) {
+			if (record.charAt(i) == QUOTE) {
+				inQuotes = !inQuotes;
+			}
+		}
+		return inQuotes;
+	}
+
+	private String key(String record) {
+		int column = 0;
+		int start = 0;
+		boolean inQuotes = false;
+		for (int i = 0; i <= record.length(); i++) {
+			if (i == record.length() || (record.charAt(i) == DELIMITER && !inQuotes)) {
+				if (column == keyColumn) {
+					return record.substring(start, i);
+				}
+				column++;
+				start = i + 1;
+			} else if (record.charAt(i) == QUOTE) {
+				inQuotes = !inQuotes;
+			}
+		}
+		throw new IllegalStateException("Record has no column " + keyColumn + " : " + record);
+	}
+
+	private void writeRecord(String record, Writer output, BufferedWriter nextSegment) throws IOException {
+		output.write(record);
+		output.write(System.lineSeparator());
+		nextSegment.write(record);
+		nextSegment.newLine();
+	}
+
+}
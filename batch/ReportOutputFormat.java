@@ -0,0 +1,60 @@
+package com.synergensolutions.sbsservice.reports.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+public enum ReportOutputFormat {
+
+	CSV(".csv", "text/csv"),
+	CSV_GZIP(".csv.gz", "application/gzip"),
+	// written by XSSFExcelItemWriter only, it is never selected from the job parameter
+	XLSX(".xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+	public static final String JOB_PARAM_NAME = "outputFormat";
+	public static final String JOB_PARAM_EXPRESSION = "#{jobParameters['" + JOB_PARAM_NAME + "']}";
+
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	private final String extension;
+	private final String contentType;
+
+	ReportOutputFormat(String extension, String contentType) {
+		this.extension = extension;
+		this.contentType = contentType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public OutputStream wrap(OutputStream outputStream) throws IOException {
+		if (this == CSV_GZIP) {
+			return new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+		}
+		return outputStream;
+	}
+
+	// a missing job parameter means plain CSV, an unknown value is rejected rather than silently written as CSV
+	public static ReportOutputFormat fromJobParameter(String value) {
+		if (value == null) {
+			return CSV;
+		}
+		return Arrays.stream(values()).filter(format -> format != XLSX && format.name().equalsIgnoreCase(value))
+				.findFirst().orElseThrow(() -> new IllegalArgumentException("Unknown report output format : " + value));
+	}
+
+	// the longest matching extension wins, so .csv.gz is not taken for .csv
+	public static ReportOutputFormat fromFileName(String fileName) {
+		if (fileName.endsWith(XLSX.extension)) {
+			return XLSX;
+		}
+		return fileName.endsWith(CSV_GZIP.extension) ? CSV_GZIP : CSV;
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.synergensolutions.sbsservice.reports.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+// chunk oriented counterpart of XSSFExcelWriter, the rows of every chunk go into a streaming workbook that keeps
+// rowWindowSize rows on the heap and flushes the rest to compressed temp files. The rows of a chunk are only added
+// to the sheet when the chunk transaction commits, flushed rows cannot be taken back. The workbook is written to the
+// output file in afterStep once the step completed, before the step is saved, and a failure there fails the step.
+// A failed step only discards the workbook. Must be registered as a step listener as well. A spreadsheet cannot be
+// appended to, so a restart writes it again from the first row and the reader must not save its state
+@Slf4j
+public class XSSFExcelItemWriter implements ItemStreamWriter<List<String>>, StepExecutionListener {
+
+	private final File outputFile;
+	private final String fileTitle;
+	private final Collection<String> headers;
+	private final int rowWindowSize;
+
+	private SXSSFWorkbook workbook;
+	private Sheet sheet;
+	private int rowIndex;
+	private List<List<String>> chunkRows;
+
+	public XSSFExcelItemWriter(final File outputFile, final String fileTitle, final Collection<String> headers,
+			final int rowWindowSize) {
+		super();
+		this.outputFile = outputFile;
+		this.fileTitle = fileTitle;
+		this.headers = headers;
+		this.rowWindowSize = rowWindowSize;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		workbook = new SXSSFWorkbook(rowWindowSize);
+		workbook.setCompressTempFiles(true);
+		sheet = workbook.createSheet(XSSFExcelWriter.sheetName(fileTitle));
+		rowIndex = XSSFExcelWriter.writeHeaderRows(sheet, fileTitle, headers);
+	}
+
+	@Override
+	public void write(List<? extends List<String>> items) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			writeRows(items);
+			return;
+		}
+		if (chunkRows == null) {
+			chunkRows = new ArrayList<>(items.size());
+			TransactionSynchronizationManager.registerSynchronization(new ChunkSynchronization());
+		}
+		chunkRows.addAll(items);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (workbook == null || stepExecution.getStatus() != BatchStatus.COMPLETED) {
+			return null;
+		}
+		try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))) {
+			workbook.write(outputStream);
+		} catch (IOException | RuntimeException e) {
+			log.error("Failed to write " + outputFile + " : " + e.getMessage());
+			deletePartialFile();
+			stepExecution.setStatus(BatchStatus.FAILED);
+			stepExecution.addFailureException(e);
+			return ExitStatus.FAILED.addExitDescription(e);
+		} finally {
+			discardWorkbook();
+		}
+		return null;
+	}
+
+	// written by afterStep when the step completed, anything left here belongs to a failed step
+	@Override
+	public void close() {
+		if (workbook != null) {
+			discardWorkbook();
+		}
+	}
+
+	private void writeRows(List<? extends List<String>> rows) {
+		for (List<String> row : rows) {
+			XSSFExcelWriter.writeDataRow(sheet, rowIndex++, row);
+		}
+	}
+
+	// removes the flushed row window temp files
+	private void discardWorkbook() {
+		workbook.dispose();
+		workbook = null;
+		sheet = null;
+	}
+
+	private void deletePartialFile() {
+		try {
+			Files.deleteIfExists(outputFile.toPath());
+		} catch (IOException e) {
+			log.warn("Failed to delete " + outputFile + " : " + e.getMessage());
+		}
+	}
+
+	private class ChunkSynchronization implements TransactionSynchronization {
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			List<List<String>> rows = chunkRows;
+			chunkRows = null;
+			writeRows(rows);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			chunkRows = null;
+		}
+
+	}
+
+}
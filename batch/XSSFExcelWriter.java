@@ -1,9 +1,14 @@
 package com.synergensolutions.sbsservice.reports.writer;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -11,6 +16,7 @@ import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import com.synergensolutions.sbsservice.common.util.FileUtils;
@@ -20,65 +26,141 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class XSSFExcelWriter {
+
+	private static final int DEFAULT_ROW_WINDOW_SIZE = 100;
+
 	private final Collection<String> headers;
-	private final Collection<List<String>> data;
+	private final Collection<List<String>> rows;
+	private final Iterator<List<String>> data;
 	private final String fileTitle;
 	private final String fileName;
+	private final int rowWindowSize;
+	private boolean dataConsumed;
 
 	public XSSFExcelWriter(final String fileName, final String fileTitle, final Collection<String> headers,
 			final Collection<List<String>> data) {
+		this(fileName, fileTitle, headers, data, null, DEFAULT_ROW_WINDOW_SIZE);
+	}
+
+	// streaming mode, rows are pulled one by one and only rowWindowSize rows are kept on the heap. The iterator can
+	// only be written once
+	public XSSFExcelWriter(final String fileName, final String fileTitle, final Collection<String> headers,
+			final Iterator<List<String>> data, final int rowWindowSize) {
+		this(fileName, fileTitle, headers, null, data, rowWindowSize);
+	}
+
+	private XSSFExcelWriter(final String fileName, final String fileTitle, final Collection<String> headers,
+			final Collection<List<String>> rows, final Iterator<List<String>> data, final int rowWindowSize) {
 		super();
 		this.fileTitle = fileTitle;
 		this.fileName = fileName;
 		this.headers = headers;
+		this.rows = rows;
 		this.data = data;
+		this.rowWindowSize = rowWindowSize;
 	}
 
 	public byte[] writer() {
 
 		try (Workbook workbook = new XSSFWorkbook()) {
 
-			Sheet sheet = workbook.createSheet(this.fileTitle.split(" \\(")[0]);
-
-			// create title row
-			AtomicInteger rowIndex = new AtomicInteger(0);
-			Row titleRow = sheet.createRow(rowIndex.getAndIncrement());
-			Cell titleCell = titleRow.createCell(0);
-			titleCell.setCellValue(this.fileTitle);
-
-			rowIndex.getAndIncrement();
-
-			// create header row
-			Row headerRow = sheet.createRow(rowIndex.getAndIncrement());
+			writeSheet(workbook);
 
-			AtomicInteger columnIndex = new AtomicInteger(0);
-			headers.forEach(h -> {
-				Cell headerCell = headerRow.createCell(columnIndex.getAndIncrement());
-				headerCell.setCellValue(h);
-			});
+			File reportFile = FileUtils.createTempFile(fileName, ".xlsx");
+			try (FileOutputStream outputStream = new FileOutputStream(reportFile)) {
+				workbook.write(outputStream);
+			}
 
-			// create data rows
-			data.forEach(d -> {
+			return Files.readAllBytes(reportFile.toPath());
 
-				Row dataRow = sheet.createRow(rowIndex.getAndIncrement());
-				AtomicInteger dataColumnIndex = new AtomicInteger(0);
-				d.forEach(di -> {
-					Cell headerCell = dataRow.createCell(dataColumnIndex.getAndIncrement());
-					headerCell.setCellValue(di);
-				});
+		} catch (Exception e) {
+			log.error(e.getLocalizedMessage());
+			throw new GenerateReportException(e.getLocalizedMessage());
+		}
+	}
 
-			});
+	public void write(final Path outputPath) {
+		try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputPath))) {
+			write(outputStream);
+		} catch (GenerateReportException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error(e.getLocalizedMessage());
+			throw new GenerateReportException(e.getLocalizedMessage());
+		}
+	}
 
-			File reportFile = FileUtils.createTempFile(fileName, ".xlsx");
-			FileOutputStream outputStream = new FileOutputStream(reportFile);
+	public void write(final OutputStream outputStream) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindowSize);
+		try {
+			workbook.setCompressTempFiles(true);
+			writeSheet(workbook);
 			workbook.write(outputStream);
-
-			return Files.readAllBytes(reportFile.toPath());
-
 		} catch (Exception e) {
 			log.error(e.getLocalizedMessage());
 			throw new GenerateReportException(e.getLocalizedMessage());
+		} finally {
+			// removes the flushed row window temp files, on the error path as well
+			workbook.dispose();
+			try {
+				workbook.close();
+			} catch (IOException e) {
+				log.warn("Failed to close workbook of " + fileName + " : " + e.getMessage());
+			}
 		}
 	}
 
+	private void writeSheet(Workbook workbook) {
+		Sheet sheet = workbook.createSheet(sheetName(this.fileTitle));
+		AtomicInteger rowIndex = new AtomicInteger(writeHeaderRows(sheet, this.fileTitle, this.headers));
+
+		// create data rows
+		dataRows().forEachRemaining(d -> writeDataRow(sheet, rowIndex.getAndIncrement(), d));
+	}
+
+	private Iterator<List<String>> dataRows() {
+		if (rows != null) {
+			return rows.iterator();
+		}
+		if (dataConsumed) {
+			throw new IllegalStateException("The streamed rows of " + fileName + " were already written");
+		}
+		dataConsumed = true;
+		return data;
+	}
+
+	static String sheetName(String fileTitle) {
+		return fileTitle.split(" \\(")[0];
+	}
+
+	// title row, an empty row and the header row, returns the index of the first data row
+	static int writeHeaderRows(Sheet sheet, String fileTitle, Collection<String> headers) {
+		// create title row
+		AtomicInteger rowIndex = new AtomicInteger(0);
+		Row titleRow = sheet.createRow(rowIndex.getAndIncrement());
+		Cell titleCell = titleRow.createCell(0);
+		titleCell.setCellValue(fileTitle);
+
+		rowIndex.getAndIncrement();
+
+		// create header row
+		Row headerRow = sheet.createRow(rowIndex.getAndIncrement());
+
+		AtomicInteger columnIndex = new AtomicInteger(0);
+		headers.forEach(h -> {
+			Cell headerCell = headerRow.createCell(columnIndex.getAndIncrement());
+			headerCell.setCellValue(h);
+		});
+		return rowIndex.get();
+	}
+
+	static void writeDataRow(Sheet sheet, int rowIndex, List<String> values) {
+		Row dataRow = sheet.createRow(rowIndex);
+		AtomicInteger dataColumnIndex = new AtomicInteger(0);
+		values.forEach(di -> {
+			Cell headerCell = dataRow.createCell(dataColumnIndex.getAndIncrement());
+			headerCell.setCellValue(di);
+		});
+	}
+
 }
@@ -0,0 +1,143 @@
+package com.synergensolutions.sbsservice.common.batch.chunk;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import lombok.extern.slf4j.Slf4j;
+
+// chunk completion policy that resizes the chunks between commits. The time between two chunk starts covers
+// read, process, write and commit of the previous chunk, the next chunk is sized so that it takes about the target
+// commit latency, growing at most by MAX_GROWTH_FACTOR per chunk. The size is halved whenever the live heap is
+// above the memory budget. The last size of a completed step is stored per job and step and used as the starting
+// size of the next run, a restart continues with the size saved in the step execution context. Without a store
+// nothing is learned across runs, a store that cannot be read or written is skipped as well.
+// One instance per step execution (step scoped bean), register it as the chunk policy and as a step listener
+@Slf4j
+public class AdaptiveChunkSizePolicy extends SimpleCompletionPolicy implements StepExecutionListener {
+
+	static final String CHUNK_SIZE_KEY = "adaptiveChunkSize";
+
+	private static final String PARTITION_SEPARATOR = ":";
+	private static final double LATENCY_TOLERANCE = 0.25;
+	private static final int MAX_GROWTH_FACTOR = 2;
+
+	private final ChunkSizeStore chunkSizeStore;
+	private final int minSize;
+	private final int maxSize;
+	private final long targetCommitNanos;
+	private final double memoryBudget;
+
+	private StepExecution stepExecution;
+	private String jobName;
+	private String stepName;
+	private long chunkStart;
+	private int chunkItems;
+
+	public AdaptiveChunkSizePolicy(ChunkSizeStore chunkSizeStore, int initialSize, int minSize, int maxSize,
+			long targetCommitMillis, double memoryBudget) {
+		super(Math.max(minSize, Math.min(maxSize, initialSize)));
+		this.chunkSizeStore = chunkSizeStore;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.targetCommitNanos = targetCommitMillis * 1_000_000L;
+		this.memoryBudget = memoryBudget;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		this.stepExecution = stepExecution;
+		jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+		stepName = stepExecution.getStepName();
+		// partition workers are named <step>:partitionN and share the size learned for the worker step
+		if (stepName.contains(PARTITION_SEPARATOR)) {
+			stepName = stepName.substring(0, stepName.indexOf(PARTITION_SEPARATOR));
+		}
+
+		if (stepExecution.getExecutionContext().containsKey(CHUNK_SIZE_KEY)) {
+			resize(stepExecution.getExecutionContext().getInt(CHUNK_SIZE_KEY));
+		} else if (chunkSizeStore != null) {
+			try {
+				chunkSizeStore.find(jobName, stepName).ifPresent(this::resize);
+			} catch (RuntimeException e) {
+				log.warn("Failed to load the chunk size of " + jobName + "." + stepName + " : " + e.getMessage());
+			}
+		}
+		chunkStart = 0;
+	}
+
+	@Override
+	public RepeatContext start(RepeatContext context) {
+		long now = System.nanoTime();
+		if (chunkStart > 0) {
+			adapt(chunkItems, now - chunkStart);
+		}
+		chunkStart = now;
+		chunkItems = 0;
+		return super.start(context);
+	}
+
+	@Override
+	public void update(RepeatContext context) {
+		super.update(context);
+		chunkItems++;
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (chunkSizeStore == null || stepExecution.getStatus() != BatchStatus.COMPLETED) {
+			return null;
+		}
+		try {
+			chunkSizeStore.save(jobName, stepName, getChunkSize());
+		} catch (RuntimeException e) {
+			log.warn("Failed to save the chunk size of " + jobName + "." + stepName + " : " + e.getMessage());
+		}
+		return null;
+	}
+
+	private void adapt(int items, long elapsedNanos) {
+		int chunkSize = getChunkSize();
+		if (heapUsage() > memoryBudget) {
+			resize(chunkSize / 2);
+		} else if (items == chunkSize && elapsedNanos > 0) {
+			// a short chunk is the end of the input and says nothing about the latency of a full one
+			double latency = elapsedNanos / (double) targetCommitNanos;
+			if (latency > 1 + LATENCY_TOLERANCE || latency < 1 - LATENCY_TOLERANCE) {
+				resize((int) Math.min((long) chunkSize * MAX_GROWTH_FACTOR, (long) (items / latency)));
+			}
+		}
+
+		if (getChunkSize() != chunkSize) {
+			log.debug(stepExecution.getStepName() + " chunk size " + chunkSize + " -> " + getChunkSize());
+			stepExecution.getExecutionContext().putInt(CHUNK_SIZE_KEY, getChunkSize());
+		}
+	}
+
+	private void resize(int chunkSize) {
+		setChunkSize(Math.max(minSize, Math.min(maxSize, chunkSize)));
+	}
+
+	// heap left after the last collections, the current usage would also count garbage that is not collected yet
+	private static double heapUsage() {
+		long used = 0;
+		long max = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (pool.getType() == MemoryType.HEAP && usage != null && usage.getMax() > 0) {
+				used += usage.getUsed();
+				max += usage.getMax();
+			}
+		}
+		return max == 0 ? 0 : used / (double) max;
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.synergensolutions.sbsservice.common.batch.chunk;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// backed by report_chunk_size, created by ReportSchemaInitializer
+@Component
+public class ChunkSizeStore {
+
+	public static final String SCHEMA = "CREATE TABLE IF NOT EXISTS report_chunk_size (job_name VARCHAR(100) NOT NULL,"
+			+ " step_name VARCHAR(100) NOT NULL, chunk_size INT NOT NULL, PRIMARY KEY (job_name, step_name))";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ChunkSizeStore(final DataSource dataSource) {
+		super();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	public Optional<Integer> find(String jobName, String stepName) {
+		List<Integer> chunkSizes = jdbcTemplate.query(
+				"SELECT chunk_size FROM report_chunk_size WHERE job_name = ? AND step_name = ?",
+				(rs, rowNum) -> rs.getInt("chunk_size"), jobName, stepName);
+		return chunkSizes.stream().findFirst();
+	}
+
+	public void save(String jobName, String stepName, int chunkSize) {
+		int updated = jdbcTemplate.update(
+				"UPDATE report_chunk_size SET chunk_size = ? WHERE job_name = ? AND step_name = ?", chunkSize,
+				jobName, stepName);
+		if (updated == 0) {
+			jdbcTemplate.update("INSERT INTO report_chunk_size (job_name, step_name, chunk_size) VALUES (?, ?, ?)",
+					jobName, stepName, chunkSize);
+		}
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.synergensolutions.sbsservice.common.batch.completion;
+
+import lombok.Value;
+
+// hand-off record of a finished download report job, s3Key is known once the upload stage is done or when the
+// job streamed the report to S3 itself
+@Value
+public class ReportCompletion {
+
+	Long jobExecutionId;
+	String jobName;
+	String cacheKey;
+	Long eventId;
+	String outputPath;
+	String s3Key;
+	ReportCompletionStage stage;
+
+	public ReportCompletion next(ReportCompletionStage nextStage, String uploadedS3Key) {
+		return new ReportCompletion(jobExecutionId, jobName, cacheKey, eventId, outputPath, uploadedS3Key, nextStage);
+	}
+
+}
@@ -0,0 +1,231 @@
+package com.synergensolutions.sbsservice.common.batch.completion;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.common.batch.launch.ReportResultCache;
+import com.synergensolutions.sbsservice.messages.notifications.model.Notification;
+import com.synergensolutions.sbsservice.messages.notifications.model.Topic;
+import com.synergensolutions.sbsservice.messages.notifications.sender.NotificationSender;
+import com.synergensolutions.sbsservice.reports.model.DownloadReportEvent;
+import com.synergensolutions.sbsservice.reports.service.DownloadReportEventService;
+import com.synergensolutions.sbsservice.reports.service.MonthlyReportService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// upload, record and notify of finished download report jobs, run off the job thread. Every stage is retried with
+// an exponential back off and its outcome is written to the hand-off record, a record left behind by a stopped node
+// is taken over by the periodic sweep and continues from its last stage. The records this node holds, queued or
+// running, are touched every third of stale_after so a long upload is not taken over while it runs. Delivery is at
+// least once, a stage that succeeded but could not be recorded runs again. The output file of the upload stage is
+// local to the node that ran the job, an upload record is only taken over by a node that sees that file, the same
+// node after a restart or any node when report.output_dir is shared storage. Finished records are deleted once they
+// are older than retention_hours
+@Component
+@Slf4j
+public class ReportCompletionPipeline {
+
+	private static final String METRIC_PREFIX = "report.completion.";
+	private static final long SWEEP_INTERVAL_SECONDS = 60;
+	private static final int MAX_BACK_OFF_SHIFT = 10;
+
+	private final ReportCompletionStore reportCompletionStore;
+	private final MonthlyReportService monthlyReportService;
+	private final DownloadReportEventService downloadReportEventService;
+	private final NotificationSender notificationSender;
+	private final ReportResultCache reportResultCache;
+	private final MeterRegistry meterRegistry;
+	private final int maxAttempts;
+	private final long backOffMillis;
+	private final int maxPending;
+	private final Duration staleAfter;
+	private final Duration retention;
+
+	private final ScheduledExecutorService executor;
+	private final ScheduledExecutorService heartbeats;
+	private final AtomicInteger pending = new AtomicInteger();
+	private final Set<Long> heldCompletions = ConcurrentHashMap.newKeySet();
+
+	public ReportCompletionPipeline(final ReportCompletionStore reportCompletionStore,
+			@Lazy final MonthlyReportService monthlyReportService,
+			@Lazy final DownloadReportEventService downloadReportEventService,
+			final NotificationSender notificationSender, final ReportResultCache reportResultCache,
+			final MeterRegistry meterRegistry, @Value("${report.completion.pool_size:2}") final int poolSize,
+			@Value("${report.completion.max_attempts:5}") final int maxAttempts,
+			@Value("${report.completion.back_off_millis:1000}") final long backOffMillis,
+			@Value("${report.completion.max_pending:500}") final int maxPending,
+			@Value("${report.completion.stale_after_seconds:600}") final long staleAfterSeconds,
+			@Value("${report.completion.retention_hours:24}") final long retentionHours) {
+		super();
+		this.reportCompletionStore = reportCompletionStore;
+		this.monthlyReportService = monthlyReportService;
+		this.downloadReportEventService = downloadReportEventService;
+		this.notificationSender = notificationSender;
+		this.reportResultCache = reportResultCache;
+		this.meterRegistry = meterRegistry;
+		this.maxAttempts = maxAttempts;
+		this.backOffMillis = backOffMillis;
+		this.maxPending = maxPending;
+		this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+		this.retention = Duration.ofHours(retentionHours);
+		this.executor = Executors.newScheduledThreadPool(poolSize);
+		// separate from the pipeline threads, they can all be busy with long uploads
+		this.heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+		Gauge.builder(METRIC_PREFIX + "pending", pending, AtomicInteger::get).register(meterRegistry);
+		executor.scheduleWithFixedDelay(this::resumeStale, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS,
+				TimeUnit.SECONDS);
+		long heartbeatSeconds = Math.max(staleAfterSeconds / 3, 1);
+		heartbeats.scheduleWithFixedDelay(this::touchHeld, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+	}
+
+	// the record is written on the calling thread, everything else runs on the pipeline executor
+	public void submit(ReportCompletion completion) {
+		reportCompletionStore.insert(completion);
+		enqueue(completion);
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		heartbeats.shutdownNow();
+	}
+
+	private void enqueue(ReportCompletion completion) {
+		if (pending.incrementAndGet() > maxPending) {
+			pending.decrementAndGet();
+			log.warn("Report completion queue is full, job " + completion.getJobExecutionId()
+					+ " is left to the sweep");
+			return;
+		}
+		heldCompletions.add(completion.getJobExecutionId());
+		executor.execute(() -> run(completion, 1));
+	}
+
+	private void run(ReportCompletion completion, int attempt) {
+		ReportCompletionStage stage = completion.getStage();
+		long startedAt = System.nanoTime();
+		ReportCompletion next;
+		try {
+			next = execute(completion);
+			reportCompletionStore.update(next);
+			record(stage, "success", startedAt);
+		} catch (RuntimeException e) {
+			record(stage, "failure", startedAt);
+			retryOrFail(completion, attempt, e);
+			return;
+		}
+
+		if (next.getStage() == ReportCompletionStage.DONE) {
+			pending.decrementAndGet();
+			heldCompletions.remove(next.getJobExecutionId());
+			reportResultCache.complete(next.getCacheKey(), next.getS3Key());
+			return;
+		}
+		executor.execute(() -> run(next, 1));
+	}
+
+	private ReportCompletion execute(ReportCompletion completion) {
+		switch (completion.getStage()) {
+		case UPLOAD:
+			DownloadReportEvent uploadedEvent = downloadReportEventService.findById(completion.getEventId());
+			String s3Key = monthlyReportService.uploadResults(completion.getOutputPath(),
+					uploadedEvent.getFileName());
+			return completion.next(ReportCompletionStage.RECORD, s3Key);
+		case RECORD:
+			downloadReportEventService.updateDownloadReportEvent(completion.getEventId(), completion.getS3Key());
+			return completion.next(ReportCompletionStage.NOTIFY, completion.getS3Key());
+		case NOTIFY:
+			DownloadReportEvent notifiedEvent = downloadReportEventService.findById(completion.getEventId());
+			notificationSender.send(Notification.builder().title("Reports")
+					.targetUsers(Set.of(notifiedEvent.getOwner())).topics(Set.of(Topic.REPORT_GENERATION))
+					.message(notifiedEvent.getFileName() + " is generated").build());
+			return completion.next(ReportCompletionStage.DONE, completion.getS3Key());
+		default:
+			throw new IllegalStateException("Report completion " + completion.getJobExecutionId() + " is already "
+					+ completion.getStage());
+		}
+	}
+
+	private void retryOrFail(ReportCompletion completion, int attempt, RuntimeException e) {
+		if (attempt < maxAttempts) {
+			long delay = backOffMillis << Math.min(attempt - 1, MAX_BACK_OFF_SHIFT);
+			log.warn("Report completion " + completion.getJobExecutionId() + " failed in " + completion.getStage()
+					+ " (attempt " + attempt + " of " + maxAttempts + "), retrying in " + delay + " ms : "
+					+ e.getMessage());
+			executor.schedule(() -> run(completion, attempt + 1), delay, TimeUnit.MILLISECONDS);
+			return;
+		}
+
+		log.error("Report completion " + completion.getJobExecutionId() + " failed in " + completion.getStage()
+				+ " : " + e.getMessage());
+		pending.decrementAndGet();
+		heldCompletions.remove(completion.getJobExecutionId());
+		reportResultCache.fail(completion.getCacheKey());
+		try {
+			reportCompletionStore.update(completion.next(ReportCompletionStage.FAILED, completion.getS3Key()));
+		} catch (RuntimeException storeFailure) {
+			log.error("Failed to record report completion failure : " + storeFailure.getMessage());
+		}
+	}
+
+	private void resumeStale() {
+		Instant updatedBefore = Instant.now().minus(staleAfter);
+		try {
+			for (ReportCompletion completion : reportCompletionStore.findStale(updatedBefore)) {
+				if (heldCompletions.contains(completion.getJobExecutionId()) || !canResume(completion)) {
+					continue;
+				}
+				if (reportCompletionStore.claim(completion, updatedBefore)) {
+					log.info("Resuming report completion " + completion.getJobExecutionId() + " at "
+							+ completion.getStage());
+					enqueue(completion);
+				}
+			}
+		} catch (RuntimeException e) {
+			log.error("Failed to resume report completions : " + e.getMessage());
+		}
+		try {
+			reportCompletionStore.deleteFinished(Instant.now().minus(retention));
+		} catch (RuntimeException e) {
+			log.error("Failed to delete finished report completions : " + e.getMessage());
+		}
+	}
+
+	private boolean canResume(ReportCompletion completion) {
+		return completion.getStage() != ReportCompletionStage.UPLOAD
+				|| new File(completion.getOutputPath()).isFile();
+	}
+
+	private void touchHeld() {
+		try {
+			reportCompletionStore.touch(List.copyOf(heldCompletions));
+		} catch (RuntimeException e) {
+			log.error("Failed to refresh report completions : " + e.getMessage());
+		}
+	}
+
+	private void record(ReportCompletionStage stage, String outcome, long startedAt) {
+		Timer.builder(METRIC_PREFIX + "stage").tag("stage", stage.name()).tag("outcome", outcome)
+				.register(meterRegistry).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+	}
+
+}
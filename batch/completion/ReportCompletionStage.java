@@ -0,0 +1,12 @@
+package com.synergensolutions.sbsservice.common.batch.completion;
+
+// the stages run in declaration order, DONE and FAILED are final
+public enum ReportCompletionStage {
+
+	UPLOAD, RECORD, NOTIFY, DONE, FAILED;
+
+	public boolean isFinal() {
+		return this == DONE || this == FAILED;
+	}
+
+}
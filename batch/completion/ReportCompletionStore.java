@@ -0,0 +1,80 @@
+package com.synergensolutions.sbsservice.common.batch.completion;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+// backed by report_completion, created by ReportSchemaInitializer
+@Component
+public class ReportCompletionStore {
+
+	public static final String SCHEMA = "CREATE TABLE IF NOT EXISTS report_completion (job_execution_id BIGINT"
+			+ " PRIMARY KEY, job_name VARCHAR(100) NOT NULL, cache_key VARCHAR(2500) NOT NULL,"
+			+ " event_id BIGINT NOT NULL, output_path VARCHAR(1024) NOT NULL, s3_key VARCHAR(1024),"
+			+ " stage VARCHAR(16) NOT NULL, updated_at TIMESTAMP NOT NULL)";
+
+	private static final RowMapper<ReportCompletion> ROW_MAPPER = (rs, rowNum) -> new ReportCompletion(
+			rs.getLong("job_execution_id"), rs.getString("job_name"), rs.getString("cache_key"),
+			rs.getLong("event_id"), rs.getString("output_path"), rs.getString("s3_key"),
+			ReportCompletionStage.valueOf(rs.getString("stage")));
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ReportCompletionStore(final DataSource dataSource) {
+		super();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	public void insert(ReportCompletion completion) {
+		jdbcTemplate.update(
+				"INSERT INTO report_completion (job_execution_id, job_name, cache_key, event_id, output_path, s3_key,"
+						+ " stage, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+				completion.getJobExecutionId(), completion.getJobName(), completion.getCacheKey(),
+				completion.getEventId(), completion.getOutputPath(), completion.getS3Key(),
+				completion.getStage().name(), Timestamp.from(Instant.now()));
+	}
+
+	public void update(ReportCompletion completion) {
+		jdbcTemplate.update(
+				"UPDATE report_completion SET s3_key = ?, stage = ?, updated_at = ? WHERE job_execution_id = ?",
+				completion.getS3Key(), completion.getStage().name(), Timestamp.from(Instant.now()),
+				completion.getJobExecutionId());
+	}
+
+	// records that have not moved since before the given time, their node stopped while they were in flight
+	public List<ReportCompletion> findStale(Instant updatedBefore) {
+		return jdbcTemplate.query(
+				"SELECT job_execution_id, job_name, cache_key, event_id, output_path, s3_key, stage"
+						+ " FROM report_completion WHERE stage NOT IN ('DONE', 'FAILED') AND updated_at < ?",
+				ROW_MAPPER, Timestamp.from(updatedBefore));
+	}
+
+	// keeps the records this node is working on from being taken over by the sweep
+	public void touch(Collection<Long> jobExecutionIds) {
+		Timestamp now = Timestamp.from(Instant.now());
+		for (Long jobExecutionId : jobExecutionIds) {
+			jdbcTemplate.update("UPDATE report_completion SET updated_at = ? WHERE job_execution_id = ?", now,
+					jobExecutionId);
+		}
+	}
+
+	public int deleteFinished(Instant updatedBefore) {
+		return jdbcTemplate.update("DELETE FROM report_completion WHERE stage IN ('DONE', 'FAILED') AND updated_at < ?",
+				Timestamp.from(updatedBefore));
+	}
+
+	// only one node takes over a stale record, the one whose update still sees the old timestamp
+	public boolean claim(ReportCompletion completion, Instant updatedBefore) {
+		return jdbcTemplate.update(
+				"UPDATE report_completion SET updated_at = ? WHERE job_execution_id = ? AND updated_at < ?",
+				Timestamp.from(Instant.now()), completion.getJobExecutionId(), Timestamp.from(updatedBefore)) == 1;
+	}
+
+}
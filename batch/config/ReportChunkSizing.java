@@ -0,0 +1,45 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.common.batch.chunk.AdaptiveChunkSizePolicy;
+import com.synergensolutions.sbsservice.common.batch.chunk.ChunkSizeStore;
+
+// the configured report.batch_size is the starting chunk size, with report.chunk.adaptive=false it stays fixed and
+// the learned sizes are neither read nor written
+@Component
+public class ReportChunkSizing {
+
+	private final ChunkSizeStore chunkSizeStore;
+	private final boolean adaptive;
+	private final int minSize;
+	private final int maxSize;
+	private final long targetCommitMillis;
+	private final double memoryBudget;
+
+	public ReportChunkSizing(final ChunkSizeStore chunkSizeStore,
+			@Value("${report.chunk.adaptive:true}") final boolean adaptive,
+			@Value("${report.chunk.min_size:100}") final int minSize,
+			@Value("${report.chunk.max_size:20000}") final int maxSize,
+			@Value("${report.chunk.target_commit_millis:1000}") final long targetCommitMillis,
+			@Value("${report.chunk.memory_budget:0.7}") final double memoryBudget) {
+		super();
+		this.chunkSizeStore = chunkSizeStore;
+		this.adaptive = adaptive;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.targetCommitMillis = targetCommitMillis;
+		this.memoryBudget = memoryBudget;
+	}
+
+	public AdaptiveChunkSizePolicy policy(int configuredSize) {
+		if (!adaptive) {
+			return new AdaptiveChunkSizePolicy(null, configuredSize, configuredSize, configuredSize,
+					targetCommitMillis, memoryBudget);
+		}
+		return new AdaptiveChunkSizePolicy(chunkSizeStore, configuredSize, Math.min(minSize, configuredSize),
+				Math.max(maxSize, configuredSize), targetCommitMillis, memoryBudget);
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.common.batch.partition.DistributedPartitionHandler;
+import com.synergensolutions.sbsservice.common.batch.partition.PartitionChannel;
+
+// with report.partition.distributed=true the partitions of a report step are executed by the worker nodes instead
+// of the local partition task executor
+@Component
+public class ReportDistributedPartitioning {
+
+	private final PartitionChannel partitionChannel;
+	private final JobExplorer jobExplorer;
+	private final JobRepository jobRepository;
+	private final boolean enabled;
+	private final long pollIntervalMillis;
+	private final long heartbeatTimeoutMillis;
+	private final long dispatchTimeoutMillis;
+	private final long timeoutMillis;
+	private final int maxAttempts;
+
+	public ReportDistributedPartitioning(final PartitionChannel partitionChannel, final JobExplorer jobExplorer,
+			final JobRepository jobRepository, @Value("${report.partition.distributed:false}") final boolean enabled,
+			@Value("${report.partition.poll_millis:1000}") final long pollIntervalMillis,
+			@Value("${report.partition.heartbeat_timeout_millis:30000}") final long heartbeatTimeoutMillis,
+			@Value("${report.partition.dispatch_timeout_millis:1800000}") final long dispatchTimeoutMillis,
+			@Value("${report.partition.timeout_millis:21600000}") final long timeoutMillis,
+			@Value("${report.partition.max_attempts:3}") final int maxAttempts) {
+		super();
+		this.partitionChannel = partitionChannel;
+		this.jobExplorer = jobExplorer;
+		this.jobRepository = jobRepository;
+		this.enabled = enabled;
+		this.pollIntervalMillis = pollIntervalMillis;
+		this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+		this.dispatchTimeoutMillis = dispatchTimeoutMillis;
+		this.timeoutMillis = timeoutMillis;
+		this.maxAttempts = maxAttempts;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// the worker step is looked up by bean name on the worker nodes
+	public PartitionHandler partitionHandler(String workerStepBeanName, int gridSize) {
+		return new DistributedPartitionHandler(partitionChannel, jobExplorer, jobRepository, workerStepBeanName,
+				gridSize, pollIntervalMillis, heartbeatTimeoutMillis, dispatchTimeoutMillis, timeoutMillis,
+				maxAttempts);
+	}
+
+}
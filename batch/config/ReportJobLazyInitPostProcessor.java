@@ -0,0 +1,52 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.batch.core.Job;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// the job beans, and the other beans declared by the configs that declare them, are created on first use instead of
+// at startup, so startup time and heap do not grow with the number of report types. The jobs are resolved through
+// ReportJobRegistry when they are launched. Turned off with report.jobs.lazy=false
+@Component
+public class ReportJobLazyInitPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+	private Environment environment;
+
+	// bean factory post processors are created before @Value placeholders can be resolved
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		if (!environment.getProperty("report.jobs.lazy", Boolean.class, true)) {
+			return;
+		}
+
+		// allowEagerInit=false, the job types are predicted from the @Bean methods without creating anything
+		Set<String> jobConfigs = new HashSet<>();
+		for (String jobName : beanFactory.getBeanNamesForType(Job.class, true, false)) {
+			BeanDefinition jobDefinition = beanFactory.getBeanDefinition(jobName);
+			jobDefinition.setLazyInit(true);
+			if (jobDefinition.getFactoryBeanName() != null) {
+				jobConfigs.add(jobDefinition.getFactoryBeanName());
+			}
+		}
+
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+			if (jobConfigs.contains(beanDefinition.getFactoryBeanName())) {
+				beanDefinition.setLazyInit(true);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.common.batch.repository.EphemeralJobRepository;
+import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
+
+// download report jobs are one off exports, their running steps are written to the batch tables every
+// update_interval chunk commits instead of on every one. Partition steps run by worker nodes are always written,
+// the manager fences off a lost worker through the step execution version. Turned off with
+// report.repository.ephemeral_download_jobs=false
+@Component
+public class ReportJobRepositoryPostProcessor implements BeanPostProcessor {
+
+	// partition step executions are named <worker step>:<partition>
+	private static final String PARTITION_SEPARATOR = ":";
+
+	private final boolean enabled;
+	private final boolean distributedPartitioning;
+	private final int updateInterval;
+
+	public ReportJobRepositoryPostProcessor(
+			@Value("${report.repository.ephemeral_download_jobs:true}") final boolean enabled,
+			@Value("${report.partition.distributed:false}") final boolean distributedPartitioning,
+			@Value("${report.repository.ephemeral_update_interval:20}") final int updateInterval) {
+		super();
+		this.enabled = enabled;
+		this.distributedPartitioning = distributedPartitioning;
+		this.updateInterval = updateInterval;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (!enabled || !(bean instanceof JobRepository) || bean instanceof EphemeralJobRepository) {
+			return bean;
+		}
+		return new EphemeralJobRepository((JobRepository) bean, this::isEphemeral, updateInterval);
+	}
+
+	private boolean isEphemeral(StepExecution stepExecution) {
+		if (distributedPartitioning && stepExecution.getStepName().contains(PARTITION_SEPARATOR)) {
+			return false;
+		}
+		return CommonConstants.JOB_TYPE_DOWNLOAD_MONTHLY_REPORT.equals(
+				stepExecution.getJobExecution().getJobParameters().getString(CommonConstants.JOB_TYPE_JOB_PARAM_NAME));
+	}
+
+}
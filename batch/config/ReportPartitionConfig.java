@@ -0,0 +1,41 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.synergensolutions.sbsservice.common.batch.partition.InMemoryPartitionChannel;
+import com.synergensolutions.sbsservice.common.batch.partition.PartitionChannel;
+import com.synergensolutions.sbsservice.common.batch.partition.PartitionWorker;
+
+@Configuration
+public class ReportPartitionConfig {
+
+	// only reaches the workers of this node, a broker backed channel is registered under its own
+	// report.partition.channel value when the workers run on other nodes
+	@Bean
+	@ConditionalOnProperty(name = "report.partition.channel", havingValue = "in-memory", matchIfMissing = true)
+	public PartitionChannel reportPartitionChannel() {
+		return new InMemoryPartitionChannel();
+	}
+
+	// every node of the distributed mode is a worker unless report.partition.worker.enabled says otherwise
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	@ConditionalOnExpression("${report.partition.worker.enabled:${report.partition.distributed:false}}")
+	public PartitionWorker reportPartitionWorker(PartitionChannel partitionChannel, JobExplorer jobExplorer,
+			BeanFactory beanFactory, @Value("${report.partition.worker.concurrency:2}") int concurrency,
+			@Value("${report.partition.worker.heartbeat_millis:5000}") long heartbeatIntervalMillis)
+			throws UnknownHostException {
+		String workerId = InetAddress.getLocalHost().getHostName() + "-" + ProcessHandle.current().pid();
+		return new PartitionWorker(partitionChannel, jobExplorer, beanFactory, workerId, concurrency,
+				heartbeatIntervalMillis);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.common.batch.chunk.ChunkSizeStore;
+import com.synergensolutions.sbsservice.common.batch.completion.ReportCompletionStore;
+import com.synergensolutions.sbsservice.common.batch.incremental.ReportWatermarkStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+// creates the tables of the report batch stores next to the Spring Batch schema, the statements only create what
+// is missing so every node runs them on start. Turned off with report.schema.initialize=false when the schema is
+// managed elsewhere
+@Component
+@Slf4j
+public class ReportSchemaInitializer implements InitializingBean {
+
+	private static final List<String> SCHEMA = List.of(ChunkSizeStore.SCHEMA, ReportCompletionStore.SCHEMA,
+			ReportWatermarkStore.SCHEMA);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean enabled;
+
+	public ReportSchemaInitializer(final DataSource dataSource,
+			@Value("${report.schema.initialize:true}") final boolean enabled) {
+		super();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.enabled = enabled;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (!enabled) {
+			return;
+		}
+		for (String statement : SCHEMA) {
+			jdbcTemplate.execute(statement);
+		}
+		log.info("Report batch schema initialised");
+	}
+
+}
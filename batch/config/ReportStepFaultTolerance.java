@@ -0,0 +1,76 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.common.batch.listener.SkippedRowListener;
+
+// fault tolerant profile of the report chunk steps. Rows failing with a skippable exception are written to the
+// skipped rows side file until the skip limit is reached, transient failures of the processor and the writer are
+// retried with an exponential back off. Read failures of a cursor cannot be retried, the step fails instead and
+// restarts from the last committed chunk when it is launched again with the same job parameters. Retries and skip
+// scans write a rolled back chunk again, so steps whose writer cannot take back a chunk (compressed, S3 multipart or
+// Excel output) are refused
+@Component
+public class ReportStepFaultTolerance {
+
+	private final boolean enabled;
+	private final int skipLimit;
+	private final int retryLimit;
+	private final long retryBackOffMillis;
+	private final Class<?>[] skippableExceptions;
+	private final Class<?>[] retryableExceptions;
+
+	public ReportStepFaultTolerance(@Value("${report.step.fault_tolerant:false}") final boolean enabled,
+			@Value("${report.step.skip_limit:100}") final int skipLimit,
+			@Value("${report.step.retry_limit:3}") final int retryLimit,
+			@Value("${report.step.retry_back_off_millis:500}") final long retryBackOffMillis,
+			@Value("${report.step.skippable_exceptions:java.lang.IllegalArgumentException,"
+					+ "org.springframework.dao.TypeMismatchDataAccessException}") final Class<?>[] skippableExceptions,
+			@Value("${report.step.retryable_exceptions:org.springframework.dao.TransientDataAccessException,"
+					+ "org.springframework.dao.RecoverableDataAccessException}") final Class<?>[] retryableExceptions) {
+		super();
+		this.enabled = enabled;
+		this.skipLimit = skipLimit;
+		this.retryLimit = retryLimit;
+		this.retryBackOffMillis = retryBackOffMillis;
+		this.skippableExceptions = skippableExceptions.clone();
+		this.retryableExceptions = retryableExceptions.clone();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> SimpleStepBuilder<T, T> apply(SimpleStepBuilder<T, T> stepBuilder,
+			SkippedRowListener<T> skippedRowListener, boolean writerRollsBack) {
+		if (!enabled) {
+			return stepBuilder;
+		}
+		if (!writerRollsBack) {
+			throw new IllegalStateException("The writer of the step cannot roll back a chunk, it cannot be made fault "
+					+ "tolerant, turn report.step.fault_tolerant off or write plain CSV");
+		}
+
+		ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+		backOffPolicy.setInitialInterval(retryBackOffMillis);
+
+		FaultTolerantStepBuilder<T, T> faultTolerantStepBuilder = stepBuilder.faultTolerant().skipLimit(skipLimit)
+				.retryLimit(retryLimit).backOffPolicy(backOffPolicy).listener((SkipListener<T, T>) skippedRowListener);
+		for (Class<?> skippableException : skippableExceptions) {
+			faultTolerantStepBuilder.skip((Class<? extends Throwable>) skippableException);
+		}
+		for (Class<?> retryableException : retryableExceptions) {
+			faultTolerantStepBuilder.retry((Class<? extends Throwable>) retryableException);
+		}
+		faultTolerantStepBuilder.listener((StepExecutionListener) skippedRowListener);
+		return faultTolerantStepBuilder;
+	}
+
+}
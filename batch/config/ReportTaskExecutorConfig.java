@@ -0,0 +1,42 @@
+package com.synergensolutions.sbsservice.common.batch.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ReportTaskExecutorConfig {
+
+	@Bean(name = "reportPartitionTaskExecutor")
+	public TaskExecutor reportPartitionTaskExecutor(@Value("${report.partition.pool_size:4}") int poolSize) {
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(poolSize);
+		taskExecutor.setMaxPoolSize(poolSize);
+		taskExecutor.setQueueCapacity(Integer.MAX_VALUE);
+		taskExecutor.setThreadNamePrefix("report-partition-");
+		return taskExecutor;
+	}
+
+	@Bean(name = "reportProcessorTaskExecutor")
+	public TaskExecutor reportProcessorTaskExecutor(@Value("${report.processor.pool_size:4}") int poolSize) {
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(poolSize);
+		taskExecutor.setMaxPoolSize(poolSize);
+		taskExecutor.setQueueCapacity(Integer.MAX_VALUE);
+		taskExecutor.setThreadNamePrefix("report-processor-");
+		return taskExecutor;
+	}
+
+	@Bean(name = "reportWriterTaskExecutor")
+	public TaskExecutor reportWriterTaskExecutor(@Value("${report.writer.pool_size:4}") int poolSize) {
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(poolSize);
+		taskExecutor.setMaxPoolSize(poolSize);
+		taskExecutor.setQueueCapacity(Integer.MAX_VALUE);
+		taskExecutor.setThreadNamePrefix("report-writer-");
+		return taskExecutor;
+	}
+
+}
@@ -0,0 +1,209 @@
+package com.synergensolutions.sbsservice.common.batch.incremental;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
+
+import lombok.extern.slf4j.Slf4j;
+
+// loads the watermark of the report into the job context before the delta step reads and moves it forward once
+// the job completed, the delta reader filters on WATERMARK_EXPRESSION and the merge step uses SEGMENT_PATH_EXPRESSION.
+// A report is keyed without its to date, so a segment grows with the range: a dated delta reader also takes the rows
+// dated after SEGMENT_TO_DATE_EXPRESSION up to the new to date, a to date before the one of the segment needs a full
+// run. Rows deleted at the source never show up in a delta, so the segment is rebuilt by a full run once it is older
+// than rebuild_after_hours. Runs of the same report on this node are serialised, they share the segment file
+@Component
+@Slf4j
+public class IncrementalReportListener implements JobExecutionListener {
+
+	public static final String WATERMARK_KEY = "reportWatermark";
+	public static final String SEGMENT_PATH_KEY = "reportSegmentPath";
+	public static final String SEGMENT_TO_DATE_KEY = "reportSegmentToDate";
+	private static final String NEXT_WATERMARK_KEY = "reportNextWatermark";
+	private static final String REPORT_KEY = "reportWatermarkKey";
+	private static final String REBUILT_AT_KEY = "reportRebuiltAt";
+	private static final String PREVIOUS_SEGMENT_PATH_KEY = "reportPreviousSegmentPath";
+
+	// the context keeps epoch millis, the reader binds a timestamp for "updated_at > ?"
+	public static final String WATERMARK_EXPRESSION = "#{new java.sql.Timestamp(jobExecutionContext['" + WATERMARK_KEY
+			+ "'])}";
+	public static final String SEGMENT_PATH_EXPRESSION = "#{jobExecutionContext['" + SEGMENT_PATH_KEY + "']}";
+	// exclusive lower bound of the dates missing from the segment, the to date itself on a full run
+	public static final String SEGMENT_TO_DATE_EXPRESSION = "#{jobExecutionContext['" + SEGMENT_TO_DATE_KEY + "']}";
+
+	private static final Set<String> IGNORED_JOB_PARAMS = Set.of(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_NAME,
+			CommonConstants.EVENT_ID_JOB_PARAM_NAME, CommonConstants.TO_DATE_JOB_PARAM_NAME);
+
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter
+			.ofPattern(CommonConstants.DATE_FORMAT_WITH_SLASH_SEP);
+
+	private final ReportWatermarkStore reportWatermarkStore;
+	private final File segmentDirectory;
+	private final long overlapMillis;
+	private final Duration rebuildAfter;
+	private final Duration lockTimeout;
+	private final Map<String, ReportLock> runningReports = new ConcurrentHashMap<>();
+	private final Map<Long, String> heldReportKeys = new ConcurrentHashMap<>();
+
+	public IncrementalReportListener(final ReportWatermarkStore reportWatermarkStore,
+			@Value("${report.incremental.segment_dir:${java.io.tmpdir}/report-segments}") final String segmentDirectory,
+			@Value("${report.incremental.overlap_seconds:300}") final long overlapSeconds,
+			@Value("${report.incremental.rebuild_after_hours:24}") final long rebuildAfterHours,
+			@Value("${report.incremental.lock_timeout_minutes:30}") final long lockTimeoutMinutes) {
+		super();
+		this.reportWatermarkStore = reportWatermarkStore;
+		this.segmentDirectory = new File(segmentDirectory);
+		this.overlapMillis = overlapSeconds * 1000;
+		this.rebuildAfter = Duration.ofHours(rebuildAfterHours);
+		this.lockTimeout = Duration.ofMinutes(lockTimeoutMinutes);
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+		JobParameters jobParameters = jobExecution.getJobParameters();
+		String reportKey = reportKey(jobExecution.getJobInstance().getJobName(), jobParameters);
+		ExecutionContext jobExecutionContext = jobExecution.getExecutionContext();
+		// a failure here fails the job, afterJob only releases keys that were acquired
+		acquire(reportKey);
+		heldReportKeys.put(jobExecution.getId(), reportKey);
+		jobExecutionContext.putString(REPORT_KEY, reportKey);
+
+		String toDate = jobParameters.getString(CommonConstants.TO_DATE_JOB_PARAM_NAME);
+		Instant rebuiltAfter = Instant.now().minus(rebuildAfter);
+		Optional<ReportWatermark> previous = reportWatermarkStore.find(reportKey);
+		Optional<ReportWatermark> watermark = previous.filter(w -> new File(w.getSegmentPath()).exists())
+				.filter(w -> w.getRebuiltAt().isAfter(rebuiltAfter)).filter(w -> covers(toDate, w.getToDate()));
+		if (watermark.isPresent()) {
+			jobExecutionContext.putLong(WATERMARK_KEY, watermark.get().getWatermark().toEpochMilli());
+			jobExecutionContext.putString(SEGMENT_PATH_KEY, watermark.get().getSegmentPath());
+			jobExecutionContext.putLong(REBUILT_AT_KEY, watermark.get().getRebuiltAt().toEpochMilli());
+			if (toDate != null) {
+				jobExecutionContext.putString(SEGMENT_TO_DATE_KEY, watermark.get().getToDate());
+			}
+			log.info("Incremental run of " + reportKey + " from " + watermark.get().getWatermark());
+		} else {
+			segmentDirectory.mkdirs();
+			jobExecutionContext.putLong(WATERMARK_KEY, 0L);
+			jobExecutionContext.putString(SEGMENT_PATH_KEY,
+					new File(segmentDirectory, UUID.randomUUID() + ".csv").getAbsolutePath());
+			jobExecutionContext.putLong(REBUILT_AT_KEY, System.currentTimeMillis());
+			if (toDate != null) {
+				jobExecutionContext.putString(SEGMENT_TO_DATE_KEY, toDate);
+			}
+			// replaced by the segment of this run once it completed
+			previous.ifPresent(w -> jobExecutionContext.putString(PREVIOUS_SEGMENT_PATH_KEY, w.getSegmentPath()));
+			log.info("Full run of " + reportKey + ", no usable watermark or the segment is due for a rebuild");
+		}
+		// rows committed by transactions that were still open at start time are re-read by the next run, the
+		// merge step keeps only the latest version of every key
+		jobExecutionContext.putLong(NEXT_WATERMARK_KEY, System.currentTimeMillis() - overlapMillis);
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+		String reportKey = heldReportKeys.remove(jobExecution.getId());
+		if (reportKey == null) {
+			return;
+		}
+		ExecutionContext jobExecutionContext = jobExecution.getExecutionContext();
+		try {
+			if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
+				reportWatermarkStore.save(reportKey,
+						Instant.ofEpochMilli(jobExecutionContext.getLong(NEXT_WATERMARK_KEY)),
+						jobExecutionContext.getString(SEGMENT_PATH_KEY),
+						Instant.ofEpochMilli(jobExecutionContext.getLong(REBUILT_AT_KEY)),
+						jobExecution.getJobParameters().getString(CommonConstants.TO_DATE_JOB_PARAM_NAME));
+				deletePreviousSegment(jobExecutionContext);
+			}
+		} finally {
+			release(reportKey);
+		}
+	}
+
+	static String reportKey(String jobName, JobParameters jobParameters) {
+		Map<String, String> normalisedParams = new TreeMap<>();
+		jobParameters.getParameters().forEach((name, value) -> {
+			if (!IGNORED_JOB_PARAMS.contains(name)) {
+				normalisedParams.put(name, String.valueOf(value.getValue()));
+			}
+		});
+		return jobName + normalisedParams;
+	}
+
+	// the segment holds every row up to its own to date, an earlier to date would keep rows outside the range
+	private static boolean covers(String toDate, String segmentToDate) {
+		if (toDate == null || segmentToDate == null) {
+			return toDate == null && segmentToDate == null;
+		}
+		return !LocalDate.parse(toDate, DATE_FORMATTER).isBefore(LocalDate.parse(segmentToDate, DATE_FORMATTER));
+	}
+
+	private void acquire(String reportKey) {
+		ReportLock reportLock = runningReports.compute(reportKey, (key, lock) -> {
+			ReportLock held = lock == null ? new ReportLock() : lock;
+			held.users++;
+			return held;
+		});
+		try {
+			if (reportLock.semaphore.tryAcquire(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			leave(reportKey);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the running " + reportKey, e);
+		}
+		leave(reportKey);
+		throw new IllegalStateException(
+				"Gave up waiting " + lockTimeout.toMinutes() + " minutes for the running " + reportKey);
+	}
+
+	private void release(String reportKey) {
+		runningReports.get(reportKey).semaphore.release();
+		leave(reportKey);
+	}
+
+	// the lock of a report is dropped with its last user, waiting runs still count as users
+	private void leave(String reportKey) {
+		runningReports.computeIfPresent(reportKey, (key, lock) -> --lock.users == 0 ? null : lock);
+	}
+
+	private void deletePreviousSegment(ExecutionContext jobExecutionContext) {
+		if (!jobExecutionContext.containsKey(PREVIOUS_SEGMENT_PATH_KEY)) {
+			return;
+		}
+		File previousSegment = new File(jobExecutionContext.getString(PREVIOUS_SEGMENT_PATH_KEY));
+		if (previousSegment.exists() && !previousSegment.delete()) {
+			log.warn("Failed to delete replaced segment : " + previousSegment.getAbsolutePath());
+		}
+	}
+
+	// users is only changed inside compute of runningReports
+	private static class ReportLock {
+
+		private final Semaphore semaphore = new Semaphore(1);
+		private int users;
+
+	}
+
+}
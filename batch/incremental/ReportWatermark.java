@@ -0,0 +1,17 @@
+package com.synergensolutions.sbsservice.common.batch.incremental;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+@Value
+public class ReportWatermark {
+
+	String reportKey;
+	Instant watermark;
+	String segmentPath;
+	Instant rebuiltAt;
+	// to date job parameter of the run that wrote the segment, null for reports without a date range
+	String toDate;
+
+}
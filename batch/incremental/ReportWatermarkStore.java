@@ -0,0 +1,55 @@
+package com.synergensolutions.sbsservice.common.batch.incremental;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// backed by report_watermark, created by ReportSchemaInitializer
+@Component
+public class ReportWatermarkStore {
+
+	public static final String SCHEMA = "CREATE TABLE IF NOT EXISTS report_watermark (report_key VARCHAR(512)"
+			+ " PRIMARY KEY, watermark TIMESTAMP NOT NULL, segment_path VARCHAR(1024) NOT NULL,"
+			+ " rebuilt_at TIMESTAMP NOT NULL, to_date VARCHAR(32))";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ReportWatermarkStore(final DataSource dataSource) {
+		super();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	public Optional<ReportWatermark> find(String reportKey) {
+		List<ReportWatermark> watermarks = jdbcTemplate.query(
+				"SELECT report_key, watermark, segment_path, rebuilt_at, to_date FROM report_watermark"
+						+ " WHERE report_key = ?",
+				(rs, rowNum) -> new ReportWatermark(rs.getString("report_key"),
+						rs.getTimestamp("watermark").toInstant(), rs.getString("segment_path"),
+						rs.getTimestamp("rebuilt_at").toInstant(), rs.getString("to_date")),
+				reportKey);
+		return watermarks.stream().findFirst();
+	}
+
+	public void save(String reportKey, Instant watermark, String segmentPath, Instant rebuiltAt, String toDate) {
+		int updated = jdbcTemplate.update(
+				"UPDATE report_watermark SET watermark = ?, segment_path = ?, rebuilt_at = ?, to_date = ?"
+						+ " WHERE report_key = ?",
+				Timestamp.from(watermark), segmentPath, Timestamp.from(rebuiltAt), toDate, reportKey);
+		if (updated == 0) {
+			jdbcTemplate.update("INSERT INTO report_watermark (report_key, watermark, segment_path, rebuilt_at,"
+					+ " to_date) VALUES (?, ?, ?, ?, ?)", reportKey, Timestamp.from(watermark), segmentPath,
+					Timestamp.from(rebuiltAt), toDate);
+		}
+	}
+
+	public void delete(String reportKey) {
+		jdbcTemplate.update("DELETE FROM report_watermark WHERE report_key = ?", reportKey);
+	}
+
+}
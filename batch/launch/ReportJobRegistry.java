@@ -0,0 +1,29 @@
+package com.synergensolutions.sbsservice.common.batch.launch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.batch.core.Job;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.stereotype.Component;
+
+// report jobs by name, the name is the @Qualifier value (or bean name) of the job bean. The job beans are lazy, so a
+// job and the beans of its config are only created when it is launched for the first time
+@Component
+public class ReportJobRegistry {
+
+	private final BeanFactory beanFactory;
+	private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+	public ReportJobRegistry(final BeanFactory beanFactory) {
+		super();
+		this.beanFactory = beanFactory;
+	}
+
+	public Job getJob(String jobName) {
+		return jobs.computeIfAbsent(jobName,
+				name -> BeanFactoryAnnotationUtils.qualifiedBeanOfType(beanFactory, Job.class, name));
+	}
+
+}
@@ -0,0 +1,6 @@
+package com.synergensolutions.sbsservice.common.batch.launch;
+
+// declaration order is the dispatch order
+public enum ReportLaunchPriority {
+	HIGH, NORMAL, LOW
+}
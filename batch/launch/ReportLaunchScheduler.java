@@ -0,0 +1,167 @@
+package com.synergensolutions.sbsservice.common.batch.launch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class ReportLaunchScheduler {
+
+	private static final String METRIC_PREFIX = "report.launch.";
+	private static final String JOB_TAG = "job";
+
+	private final JobLauncher jobLauncher;
+	private final ReportResultCache reportResultCache;
+	private final MeterRegistry meterRegistry;
+	private final int maxConcurrentJobs;
+	private final int maxConcurrentJobsPerType;
+	private final int maxQueueSize;
+
+	private final ExecutorService launchExecutor;
+	private final PriorityQueue<LaunchRequest> pendingRequests = new PriorityQueue<>(
+			Comparator.comparing((LaunchRequest r) -> r.priority).thenComparingLong(r -> r.sequence));
+	private final Map<String, Integer> runningJobsPerType = new HashMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private int runningJobs;
+
+	public ReportLaunchScheduler(final JobLauncher jobLauncher, final ReportResultCache reportResultCache,
+			final MeterRegistry meterRegistry,
+			@Value("${report.scheduler.max_concurrent_jobs:4}") final int maxConcurrentJobs,
+			@Value("${report.scheduler.max_concurrent_jobs_per_type:2}") final int maxConcurrentJobsPerType,
+			@Value("${report.scheduler.max_queue_size:100}") final int maxQueueSize) {
+		super();
+		this.jobLauncher = jobLauncher;
+		this.reportResultCache = reportResultCache;
+		this.meterRegistry = meterRegistry;
+		this.maxConcurrentJobs = maxConcurrentJobs;
+		this.maxConcurrentJobsPerType = maxConcurrentJobsPerType;
+		this.maxQueueSize = maxQueueSize;
+		this.launchExecutor = Executors.newFixedThreadPool(maxConcurrentJobs);
+
+		Gauge.builder(METRIC_PREFIX + "queue.depth", this, ReportLaunchScheduler::getQueueDepth)
+				.register(meterRegistry);
+		Gauge.builder(METRIC_PREFIX + "running", this, ReportLaunchScheduler::getRunningJobs).register(meterRegistry);
+	}
+
+	// returns the position in the queue, 0 when dispatched straight away, and rejects when the queue is full
+	public synchronized int submit(Job job, JobParameters jobParameters, ReportLaunchPriority priority) {
+		if (pendingRequests.size() >= maxQueueSize) {
+			meterRegistry.counter(METRIC_PREFIX + "rejected", JOB_TAG, job.getName()).increment();
+			throw new TaskRejectedException("Report queue is full, " + job.getName() + " was not launched");
+		}
+
+		LaunchRequest request = new LaunchRequest(job, jobParameters, priority, sequence.getAndIncrement());
+		pendingRequests.add(request);
+		dispatch();
+
+		int position = positionOf(request);
+		if (position > 0) {
+			log.info(job.getName() + " queued at position " + position);
+		}
+		return position;
+	}
+
+	public synchronized int getQueueDepth() {
+		return pendingRequests.size();
+	}
+
+	public synchronized int getRunningJobs() {
+		return runningJobs;
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		launchExecutor.shutdown();
+		launchExecutor.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	// starts every pending request, in priority order, that fits the global and per report type limits
+	private synchronized void dispatch() {
+		List<LaunchRequest> blocked = new ArrayList<>();
+		while (runningJobs < maxConcurrentJobs && !pendingRequests.isEmpty()) {
+			LaunchRequest request = pendingRequests.poll();
+			String jobName = request.job.getName();
+			int runningOfType = runningJobsPerType.getOrDefault(jobName, 0);
+			if (runningOfType >= maxConcurrentJobsPerType) {
+				blocked.add(request);
+				continue;
+			}
+			runningJobs++;
+			runningJobsPerType.put(jobName, runningOfType + 1);
+			launchExecutor.execute(() -> run(request));
+		}
+		pendingRequests.addAll(blocked);
+	}
+
+	private void run(LaunchRequest request) {
+		String jobName = request.job.getName();
+		Timer.builder(METRIC_PREFIX + "wait").tag(JOB_TAG, jobName).register(meterRegistry)
+				.record(System.nanoTime() - request.enqueuedAt, TimeUnit.NANOSECONDS);
+
+		long startedAt = System.nanoTime();
+		try {
+			jobLauncher.run(request.job, request.jobParameters);
+		} catch (Exception e) {
+			// the job never ran (already complete or running, invalid parameters, repository errors), so its
+			// completion listener will not release the requests waiting on it
+			log.error("Failed to execute " + jobName + " : " + e.getMessage());
+			reportResultCache.fail(ReportResultCache.keyOf(jobName, request.jobParameters));
+		} finally {
+			Timer.builder(METRIC_PREFIX + "run").tag(JOB_TAG, jobName).register(meterRegistry)
+					.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+			release(jobName);
+		}
+	}
+
+	private synchronized void release(String jobName) {
+		runningJobs--;
+		runningJobsPerType.computeIfPresent(jobName, (name, running) -> running > 1 ? running - 1 : null);
+		dispatch();
+	}
+
+	private int positionOf(LaunchRequest request) {
+		if (!pendingRequests.contains(request)) {
+			return 0;
+		}
+		return (int) pendingRequests.stream().filter(r -> pendingRequests.comparator().compare(r, request) <= 0)
+				.count();
+	}
+
+	private static final class LaunchRequest {
+		private final Job job;
+		private final JobParameters jobParameters;
+		private final ReportLaunchPriority priority;
+		private final long sequence;
+		private final long enqueuedAt = System.nanoTime();
+
+		private LaunchRequest(Job job, JobParameters jobParameters, ReportLaunchPriority priority, long sequence) {
+			this.job = job;
+			this.jobParameters = jobParameters;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+package com.synergensolutions.sbsservice.common.batch.launch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class ReportResultCache {
+
+	// per request values, two requests that only differ in these produce the same report
+	private static final Set<String> IGNORED_JOB_PARAMS = Set.of(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_NAME,
+			CommonConstants.EVENT_ID_JOB_PARAM_NAME);
+
+	private final long ttlMillis;
+	private final long inFlightTimeoutMillis;
+	private final Map<String, CachedResult> results;
+
+	public ReportResultCache(@Value("${report.cache.ttl_seconds:600}") final long ttlSeconds,
+			@Value("${report.cache.in_flight_timeout_seconds:21600}") final long inFlightTimeoutSeconds,
+			@Value("${report.cache.max_entries:200}") final int maxEntries) {
+		super();
+		this.ttlMillis = ttlSeconds * 1000;
+		this.inFlightTimeoutMillis = inFlightTimeoutSeconds * 1000;
+		this.results = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+				// in flight runs are never evicted, their waiters still have to be notified
+				return size() > maxEntries && eldest.getValue().isCompleted();
+			}
+		};
+	}
+
+	public static String keyOf(String jobName, JobParameters jobParameters) {
+		Map<String, String> normalisedParams = new TreeMap<>();
+		jobParameters.getParameters().forEach((name, value) -> {
+			if (!IGNORED_JOB_PARAMS.contains(name)) {
+				normalisedParams.put(name, String.valueOf(value.getValue()));
+			}
+		});
+		return jobName + normalisedParams;
+	}
+
+	// returns true when the caller has to run the report, otherwise onResult receives the s3 key of the shared run.
+	// onFailure is called when the run fails, for the caller that runs the report as well as for the waiters
+	public boolean join(String key, Consumer<String> onResult, Runnable onFailure) {
+		String s3Key;
+		CachedResult timedOut = null;
+		synchronized (this) {
+			CachedResult result = results.get(key);
+			if (result != null && result.isTimedOut(inFlightTimeoutMillis)) {
+				// the completion of that run was lost, its requests are failed and this one runs the report again
+				timedOut = results.remove(key);
+				result = null;
+			}
+			if (result != null && !result.isCompleted()) {
+				result.waiters.add(new Waiter(onResult, onFailure));
+				return false;
+			}
+			if (result == null || result.isExpired(ttlMillis)) {
+				results.put(key, new CachedResult(onFailure));
+				s3Key = null;
+			} else {
+				s3Key = result.s3Key;
+			}
+		}
+
+		if (timedOut != null) {
+			log.warn("Report run for " + key + " did not finish within " + inFlightTimeoutMillis + " ms");
+			notifyFailure(key, timedOut);
+		}
+		if (s3Key == null) {
+			return true;
+		}
+		log.info("Reusing report " + s3Key + " for " + key);
+		onResult.accept(s3Key);
+		return false;
+	}
+
+	public void complete(String key, String s3Key) {
+		List<Waiter> waiters;
+		synchronized (this) {
+			CachedResult result = results.get(key);
+			if (result == null) {
+				return;
+			}
+			result.s3Key = s3Key;
+			result.completedAt = System.currentTimeMillis();
+			waiters = new ArrayList<>(result.waiters);
+			result.waiters.clear();
+		}
+		for (Waiter waiter : waiters) {
+			try {
+				waiter.onResult.accept(s3Key);
+			} catch (RuntimeException e) {
+				log.error("Failed to deliver report " + s3Key + " for " + key + " : " + e.getMessage());
+			}
+		}
+	}
+
+	public void fail(String key) {
+		CachedResult result;
+		synchronized (this) {
+			result = results.remove(key);
+		}
+		if (result != null && !result.isCompleted()) {
+			notifyFailure(key, result);
+		}
+	}
+
+	private void notifyFailure(String key, CachedResult result) {
+		log.error("Report run for " + key + " failed, " + result.waiters.size() + " waiting requests are failed too");
+		List<Runnable> failureCallbacks = new ArrayList<>();
+		failureCallbacks.add(result.onFailure);
+		result.waiters.forEach(waiter -> failureCallbacks.add(waiter.onFailure));
+		for (Runnable failureCallback : failureCallbacks) {
+			try {
+				failureCallback.run();
+			} catch (RuntimeException e) {
+				log.error("Failed to report failure of " + key + " : " + e.getMessage());
+			}
+		}
+	}
+
+	private static final class CachedResult {
+		private final List<Waiter> waiters = new ArrayList<>();
+		private final Runnable onFailure;
+		private final long startedAt = System.currentTimeMillis();
+		private String s3Key;
+		private long completedAt;
+
+		private CachedResult(Runnable onFailure) {
+			this.onFailure = onFailure;
+		}
+
+		private boolean isCompleted() {
+			return s3Key != null;
+		}
+
+		private boolean isExpired(long ttlMillis) {
+			return isCompleted() && System.currentTimeMillis() - completedAt > ttlMillis;
+		}
+
+		private boolean isTimedOut(long inFlightTimeoutMillis) {
+			return !isCompleted() && System.currentTimeMillis() - startedAt > inFlightTimeoutMillis;
+		}
+	}
+
+	private static final class Waiter {
+		private final Consumer<String> onResult;
+		private final Runnable onFailure;
+
+		private Waiter(Consumer<String> onResult, Runnable onFailure) {
+			this.onResult = onResult;
+			this.onFailure = onFailure;
+		}
+	}
+
+}
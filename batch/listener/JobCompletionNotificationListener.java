@@ -1,17 +1,19 @@
 package com.synergensolutions.sbsservice.common.batch.listener;
 
+import com.synergensolutions.sbsservice.common.batch.completion.ReportCompletion;
+import com.synergensolutions.sbsservice.common.batch.completion.ReportCompletionPipeline;
+import com.synergensolutions.sbsservice.common.batch.completion.ReportCompletionStage;
+import com.synergensolutions.sbsservice.common.batch.launch.ReportResultCache;
+import com.synergensolutions.sbsservice.common.batch.writer.S3MultipartItemWriter;
 import com.synergensolutions.sbsservice.messages.notifications.model.Notification;
 import com.synergensolutions.sbsservice.messages.notifications.model.Topic;
 import com.synergensolutions.sbsservice.messages.notifications.sender.NotificationSender;
-import com.synergensolutions.sbsservice.reports.model.DownloadReportEvent;
-import com.synergensolutions.sbsservice.reports.service.DownloadReportEventService;
-import com.synergensolutions.sbsservice.reports.service.MonthlyReportService;
 import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.listener.JobExecutionListenerSupport;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -26,15 +28,14 @@ public class JobCompletionNotificationListener extends JobExecutionListenerSuppo
 
 	private final NotificationSender notificationSender;
 
-	private final MonthlyReportService monthlyReportService;
-	private final DownloadReportEventService downloadReportEventService;
+	private final ReportCompletionPipeline reportCompletionPipeline;
+	private final ReportResultCache reportResultCache;
 
 	public JobCompletionNotificationListener(NotificationSender notificationSender,
-			@Lazy final MonthlyReportService monthlyReportService,
-			@Lazy final DownloadReportEventService downloadReportEventService) {
+			final ReportCompletionPipeline reportCompletionPipeline, final ReportResultCache reportResultCache) {
 		super();
-		this.monthlyReportService = monthlyReportService;
-		this.downloadReportEventService = downloadReportEventService;
+		this.reportResultCache = reportResultCache;
+		this.reportCompletionPipeline = reportCompletionPipeline;
 		this.notificationSender = notificationSender;
 	}
 
@@ -51,12 +52,22 @@ public class JobCompletionNotificationListener extends JobExecutionListenerSuppo
 					.orElse("");
 
 			if (jobTypeParam.equals(CommonConstants.JOB_TYPE_DOWNLOAD_MONTHLY_REPORT)) {
-				DownloadReportEvent downloadReportEvent = downloadReportEventService
-						.findById(jobParameters.getLong(CommonConstants.EVENT_ID_JOB_PARAM_NAME));
-				String s3Key = monthlyReportService.uploadResults(
-						jobParameters.getString(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_NAME),
-						downloadReportEvent.getFileName());
-				monthlyReportService.notifyUser(s3Key, downloadReportEvent);
+				String cacheKey = ReportResultCache.keyOf(jobExecution.getJobInstance().getJobName(), jobParameters);
+				try {
+					ExecutionContext jobExecutionContext = jobExecution.getExecutionContext();
+					// already streamed to S3 while the chunks were written, the upload stage is skipped
+					String s3Key = jobExecutionContext.containsKey(S3MultipartItemWriter.S3_KEY_CONTEXT_KEY)
+							? jobExecutionContext.getString(S3MultipartItemWriter.S3_KEY_CONTEXT_KEY)
+							: null;
+					reportCompletionPipeline.submit(new ReportCompletion(jobExecution.getId(),
+							jobExecution.getJobInstance().getJobName(), cacheKey,
+							jobParameters.getLong(CommonConstants.EVENT_ID_JOB_PARAM_NAME),
+							jobParameters.getString(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_NAME), s3Key,
+							s3Key == null ? ReportCompletionStage.UPLOAD : ReportCompletionStage.RECORD));
+				} catch (RuntimeException e) {
+					reportResultCache.fail(cacheKey);
+					throw e;
+				}
 				return;
 			}
 
@@ -64,6 +75,14 @@ public class JobCompletionNotificationListener extends JobExecutionListenerSuppo
 					.message(jobExecution.getJobInstance().getJobName() + " Job has been completed.")
 					.targetUsers(Collections.emptySet()).topics(Set.of(Topic.JOB_COMPLETION)).build());
 
+		} else if (isDownloadReportJob(jobExecution.getJobParameters())) {
+			reportResultCache.fail(ReportResultCache.keyOf(jobExecution.getJobInstance().getJobName(),
+					jobExecution.getJobParameters()));
 		}
 	}
+
+	private boolean isDownloadReportJob(JobParameters jobParameters) {
+		return CommonConstants.JOB_TYPE_DOWNLOAD_MONTHLY_REPORT
+				.equals(jobParameters.getString(CommonConstants.JOB_TYPE_JOB_PARAM_NAME));
+	}
 }
@@ -0,0 +1,104 @@
+package com.synergensolutions.sbsservice.common.batch.listener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import com.synergensolutions.sbsservice.common.batch.utils.CSVLineAggregator;
+
+import lombok.extern.slf4j.Slf4j;
+
+// writes every skipped row with the phase and the cause to a side file next to the report, the file is appended to
+// so the rows skipped before a restart are kept
+@Slf4j
+public class SkippedRowListener<T> implements SkipListener<T, T>, StepExecutionListener {
+
+	private static final String SKIPPED_FILE_SUFFIX = ".skipped";
+	private static final char DELIMITER = ';';
+
+	private final File skippedFile;
+	private final CSVLineAggregator<T> lineAggregator;
+
+	private Writer writer;
+	private int skippedRows;
+
+	public SkippedRowListener(File skippedFile, String[] fieldNames) {
+		super();
+		this.skippedFile = skippedFile;
+		this.lineAggregator = new CSVLineAggregator<>(fieldNames, DELIMITER);
+	}
+
+	public static File skippedFile(File outputFile) {
+		return new File(outputFile.getParentFile(), outputFile.getName() + SKIPPED_FILE_SUFFIX);
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		skippedRows = 0;
+	}
+
+	@Override
+	public synchronized void onSkipInRead(Throwable t) {
+		// the row could not be read, only the cause is known
+		append("read", null, t);
+	}
+
+	@Override
+	public synchronized void onSkipInProcess(T item, Throwable t) {
+		append("process", item, t);
+	}
+
+	@Override
+	public synchronized void onSkipInWrite(T item, Throwable t) {
+		append("write", item, t);
+	}
+
+	@Override
+	public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				log.error("Failed to close skipped rows file : " + e.getMessage());
+			} finally {
+				writer = null;
+			}
+		}
+		if (skippedRows > 0) {
+			log.warn(stepExecution.getStepName() + " skipped " + skippedRows + " rows, see "
+					+ skippedFile.getAbsolutePath());
+		}
+		return null;
+	}
+
+	private void append(String phase, T item, Throwable t) {
+		try {
+			if (writer == null) {
+				writer = Files.newBufferedWriter(skippedFile.toPath(), StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			}
+			writer.write(phase);
+			writer.write(DELIMITER);
+			writer.write(String.valueOf(t.getMessage()).replaceAll("[\\r\\n]+", " ").replace(DELIMITER, ','));
+			writer.write(DELIMITER);
+			if (item != null) {
+				writer.write(lineAggregator.aggregate(item));
+			}
+			writer.write(System.lineSeparator());
+			// flushed per row so the side file survives a crash of the step
+			writer.flush();
+			skippedRows++;
+		} catch (IOException e) {
+			log.error("Failed to record skipped row : " + e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+package com.synergensolutions.sbsservice.common.batch.listener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.AbstractTaskletStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+// one instance per step execution (step scoped bean), the per item timings are thread local so it also works
+// for multi-threaded and partitioned steps. report.step.chunk covers read, process, write and commit of a chunk,
+// report.step.commit only the commit of its transaction
+public class StepMetricsListener implements StepExecutionListener, ChunkListener, ItemReadListener<Object>,
+		ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+	private static final String METRIC_PREFIX = "report.step.";
+	private static final String PARTITION_SEPARATOR = ":";
+	// FlatFileItemWriter keeps its byte position in the execution context under <name>.current.count
+	private static final String WRITTEN_BYTES_KEY_SUFFIX = ".current.count";
+
+	private final MeterRegistry meterRegistry;
+
+	private final ThreadLocal<Long> readStart = new ThreadLocal<>();
+	private final ThreadLocal<Long> processStart = new ThreadLocal<>();
+	private final ThreadLocal<Long> writeStart = new ThreadLocal<>();
+	private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+	private final AtomicBoolean firstItemRead = new AtomicBoolean();
+
+	private Tags tags;
+	private long stepStart;
+	private Timer readTimer;
+	private Timer processTimer;
+	private Timer writeTimer;
+	private Timer chunkTimer;
+	private Timer commitTimer;
+
+	public StepMetricsListener(MeterRegistry meterRegistry) {
+		super();
+		this.meterRegistry = meterRegistry;
+	}
+
+	public static <I, O> AbstractTaskletStepBuilder<SimpleStepBuilder<I, O>> register(
+			SimpleStepBuilder<I, O> stepBuilder, StepMetricsListener listener) {
+		return stepBuilder.listener((ItemReadListener<Object>) listener)
+				.listener((ItemProcessListener<Object, Object>) listener).listener((ItemWriteListener<Object>) listener)
+				.listener((StepExecutionListener) listener).listener((ChunkListener) listener);
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		String stepName = stepExecution.getStepName();
+		// partition workers are named <step>:partitionN, tagging them by worker step keeps the cardinality low
+		if (stepName.contains(PARTITION_SEPARATOR)) {
+			stepName = stepName.substring(0, stepName.indexOf(PARTITION_SEPARATOR));
+		}
+		tags = Tags.of("job", stepExecution.getJobExecution().getJobInstance().getJobName(), "step", stepName);
+		readTimer = timer("read");
+		processTimer = timer("process");
+		writeTimer = timer("write");
+		chunkTimer = timer("chunk");
+		commitTimer = timer("commit");
+		firstItemRead.set(false);
+		stepStart = System.nanoTime();
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		long elapsedNanos = System.nanoTime() - stepStart;
+		if (elapsedNanos > 0) {
+			DistributionSummary.builder(METRIC_PREFIX + "items.per.second").tags(tags).register(meterRegistry)
+					.record(stepExecution.getWriteCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+		}
+
+		long writtenBytes = 0;
+		for (Map.Entry<String, Object> entry : stepExecution.getExecutionContext().entrySet()) {
+			if (entry.getKey().endsWith(WRITTEN_BYTES_KEY_SUFFIX) && entry.getValue() instanceof Long) {
+				writtenBytes += (Long) entry.getValue();
+			}
+		}
+		DistributionSummary.builder(METRIC_PREFIX + "bytes.written").baseUnit("bytes").tags(tags)
+				.register(meterRegistry).record(writtenBytes);
+		return null;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		chunkStart.set(System.nanoTime());
+		// called inside the chunk transaction, the synchronization sees its commit
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new CommitTimer());
+		}
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		stop(chunkTimer, chunkStart);
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		chunkStart.remove();
+	}
+
+	@Override
+	public void beforeRead() {
+		readStart.set(System.nanoTime());
+	}
+
+	@Override
+	public void afterRead(Object item) {
+		stop(readTimer, readStart);
+		// the first row includes opening the cursor and running the query, so it is the DB time to first row
+		if (firstItemRead.compareAndSet(false, true)) {
+			Timer.builder(METRIC_PREFIX + "first.item").tags(tags).register(meterRegistry)
+					.record(System.nanoTime() - stepStart, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+		readStart.remove();
+	}
+
+	@Override
+	public void beforeProcess(Object item) {
+		processStart.set(System.nanoTime());
+	}
+
+	@Override
+	public void afterProcess(Object item, Object result) {
+		stop(processTimer, processStart);
+	}
+
+	@Override
+	public void onProcessError(Object item, Exception e) {
+		processStart.remove();
+	}
+
+	@Override
+	public void beforeWrite(List<? extends Object> items) {
+		writeStart.set(System.nanoTime());
+	}
+
+	@Override
+	public void afterWrite(List<? extends Object> items) {
+		stop(writeTimer, writeStart);
+		meterRegistry.counter(METRIC_PREFIX + "items.written", tags).increment(items.size());
+	}
+
+	@Override
+	public void onWriteError(Exception exception, List<? extends Object> items) {
+		writeStart.remove();
+	}
+
+	private Timer timer(String phase) {
+		return Timer.builder(METRIC_PREFIX + phase).tags(tags).publishPercentileHistogram().register(meterRegistry);
+	}
+
+	private void stop(Timer timer, ThreadLocal<Long> start) {
+		Long startedAt = start.get();
+		if (startedAt != null) {
+			timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+			start.remove();
+		}
+	}
+
+	private final class CommitTimer implements TransactionSynchronization {
+		private long commitStart;
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			commitStart = System.nanoTime();
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			if (status == STATUS_COMMITTED && commitStart > 0) {
+				commitTimer.record(System.nanoTime() - commitStart, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+// splits a CSV file into byte ranges that start and end on record boundaries, the header line is skipped and
+// line breaks inside quoted fields are never used as a boundary
+public class CSVByteRangePartitioner implements Partitioner {
+
+	public static final String START_OFFSET_KEY = "startOffset";
+	public static final String END_OFFSET_KEY = "endOffset";
+	public static final String PARTITION_INDEX_KEY = "partitionIndex";
+
+	public static final String START_OFFSET_EXPRESSION = "#{stepExecutionContext['" + START_OFFSET_KEY + "']}";
+	public static final String END_OFFSET_EXPRESSION = "#{stepExecutionContext['" + END_OFFSET_KEY + "']}";
+
+	// a range is mapped as a single MappedByteBuffer by CSVMappedFileReader
+	public static final long MAX_RANGE_SIZE = Integer.MAX_VALUE;
+
+	private static final String PARTITION_NAME_PREFIX = "partition";
+	private static final int SCAN_WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final byte QUOTE = '"';
+	private static final byte NEW_LINE = '\n';
+
+	private final File csvFile;
+
+	public CSVByteRangePartitioner(File csvFile) {
+		super();
+		this.csvFile = csvFile;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		try (FileChannel channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			// half the mapping limit leaves room for the record a boundary is moved forward to
+			long maxTargetRangeSize = MAX_RANGE_SIZE / 2;
+			int ranges = (int) Math.max(Math.max(gridSize, 1), (size + maxTargetRangeSize - 1) / maxTargetRangeSize);
+			long targetRangeSize = Math.max(size / ranges, 1);
+
+			Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+			boolean inQuotes = false;
+			boolean header = true;
+			long rangeStart = 0;
+			long nextBoundary = targetRangeSize;
+
+			for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW_SIZE) {
+				long windowSize = Math.min(SCAN_WINDOW_SIZE, size - windowStart);
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+				for (int i = 0; i < windowSize; i++) {
+					byte b = window.get(i);
+					if (b == QUOTE) {
+						inQuotes = !inQuotes;
+					} else if (b == NEW_LINE && !inQuotes) {
+						long recordEnd = windowStart + i + 1;
+						if (header) {
+							header = false;
+							rangeStart = recordEnd;
+							nextBoundary = rangeStart + targetRangeSize;
+						} else if (recordEnd >= nextBoundary && recordEnd < size) {
+							addRange(partitions, rangeStart, recordEnd);
+							rangeStart = recordEnd;
+							nextBoundary = rangeStart + targetRangeSize;
+						}
+					}
+				}
+			}
+			if (header) {
+				rangeStart = size;
+			}
+			if (rangeStart < size || partitions.isEmpty()) {
+				addRange(partitions, rangeStart, size);
+			}
+			return partitions;
+		} catch (IOException e) {
+			throw new ItemStreamException("Failed to partition " + csvFile.getAbsolutePath(), e);
+		}
+	}
+
+	private void addRange(Map<String, ExecutionContext> partitions, long start, long end) {
+		int index = partitions.size();
+		ExecutionContext context = new ExecutionContext();
+		context.putInt(PARTITION_INDEX_KEY, index);
+		context.putLong(START_OFFSET_KEY, start);
+		context.putLong(END_OFFSET_KEY, end);
+		partitions.put(PARTITION_NAME_PREFIX + index, context);
+	}
+
+}
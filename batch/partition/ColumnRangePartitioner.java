@@ -0,0 +1,95 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.math.BigInteger;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// splits the value range of an integer column into gridSize equal ranges. The ranges are equal in values, not in
+// rows, so gaps in the column give uneven partitions rather than wrong ones
+public class ColumnRangePartitioner implements Partitioner {
+
+	public static final String MIN_VALUE_KEY = "minValue";
+	public static final String MAX_VALUE_KEY = "maxValue";
+	public static final String PARTITION_INDEX_KEY = "partitionIndex";
+
+	public static final String MIN_VALUE_EXPRESSION = "#{stepExecutionContext['" + MIN_VALUE_KEY + "']}";
+	public static final String MAX_VALUE_EXPRESSION = "#{stepExecutionContext['" + MAX_VALUE_KEY + "']}";
+	public static final String PARTITION_INDEX_EXPRESSION = "#{stepExecutionContext['" + PARTITION_INDEX_KEY + "']}";
+
+	private static final String PARTITION_NAME_PREFIX = "partition";
+	private static final Set<Integer> INTEGER_TYPES = Set.of(Types.TINYINT, Types.SMALLINT, Types.INTEGER,
+			Types.BIGINT);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final String table;
+	private final String column;
+
+	public ColumnRangePartitioner(DataSource dataSource, String table, String column) {
+		super();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.table = table;
+		this.column = column;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		validateColumnType();
+		Long min = jdbcTemplate.queryForObject("SELECT MIN(" + column + ") FROM " + table, Long.class);
+		Long max = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + table, Long.class);
+
+		Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+
+		// empty source, a single empty range keeps the worker and merge steps uniform
+		if (min == null || max == null) {
+			partitions.put(PARTITION_NAME_PREFIX + 0, range(0, 1L, 0L));
+			return partitions;
+		}
+
+		// max - min overflows a long for ranges wider than Long.MAX_VALUE, the bounds are computed as BigInteger
+		BigInteger upper = BigInteger.valueOf(max);
+		BigInteger partitionCount = BigInteger.valueOf(Math.max(gridSize, 1));
+		BigInteger span = upper.subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+		BigInteger rangeSize = span.add(partitionCount).subtract(BigInteger.ONE).divide(partitionCount);
+		int index = 0;
+		for (BigInteger start = BigInteger.valueOf(min); start.compareTo(upper) <= 0; start = start.add(rangeSize)) {
+			BigInteger end = start.add(rangeSize).subtract(BigInteger.ONE).min(upper);
+			partitions.put(PARTITION_NAME_PREFIX + index, range(index, start.longValueExact(), end.longValueExact()));
+			index++;
+		}
+		return partitions;
+	}
+
+	// MIN and MAX of a text or decimal column would be read as Long without an error, and the ranges bound to the
+	// worker queries would not match the rows
+	private void validateColumnType() {
+		jdbcTemplate.query("SELECT " + column + " FROM " + table + " WHERE 1 = 0", resultSet -> {
+			ResultSetMetaData metaData = resultSet.getMetaData();
+			int type = metaData.getColumnType(1);
+			boolean integer = INTEGER_TYPES.contains(type)
+					|| ((type == Types.NUMERIC || type == Types.DECIMAL) && metaData.getScale(1) == 0);
+			if (!integer) {
+				throw new IllegalArgumentException("Cannot partition " + table + " by " + column + " of type "
+						+ metaData.getColumnTypeName(1) + ", an integer column is required");
+			}
+			return null;
+		});
+	}
+
+	private ExecutionContext range(int index, long minValue, long maxValue) {
+		ExecutionContext context = new ExecutionContext();
+		context.putInt(PARTITION_INDEX_KEY, index);
+		context.putLong(MIN_VALUE_KEY, minValue);
+		context.putLong(MAX_VALUE_KEY, maxValue);
+		return context;
+	}
+
+}
@@ -0,0 +1,199 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// manager side of a distributed partition step. The partitions are sent through the channel to whichever worker
+// node is free and polled from the shared JobRepository until every one of them has finished. A partition whose
+// worker failed, or stopped sending heartbeats, is given to another worker as a new step execution that carries the
+// execution context of the last commit, so it continues from there. A partition that no worker has taken within the
+// dispatch timeout is sent again as well, partitions still pending at the overall timeout are failed and a stop of
+// the job stops the partitions no worker has started. The output of the worker steps has to be on storage shared by
+// all nodes
+@Slf4j
+public class DistributedPartitionHandler implements PartitionHandler {
+
+	private final PartitionChannel partitionChannel;
+	private final JobExplorer jobExplorer;
+	private final JobRepository jobRepository;
+	private final String stepBeanName;
+	private final int gridSize;
+	private final long pollIntervalMillis;
+	private final Duration heartbeatTimeout;
+	private final Duration dispatchTimeout;
+	private final Duration timeout;
+	private final int maxAttempts;
+
+	public DistributedPartitionHandler(PartitionChannel partitionChannel, JobExplorer jobExplorer,
+			JobRepository jobRepository, String stepBeanName, int gridSize, long pollIntervalMillis,
+			long heartbeatTimeoutMillis, long dispatchTimeoutMillis, long timeoutMillis, int maxAttempts) {
+		super();
+		this.partitionChannel = partitionChannel;
+		this.jobExplorer = jobExplorer;
+		this.jobRepository = jobRepository;
+		this.stepBeanName = stepBeanName;
+		this.gridSize = gridSize;
+		this.pollIntervalMillis = pollIntervalMillis;
+		this.heartbeatTimeout = Duration.ofMillis(heartbeatTimeoutMillis);
+		this.dispatchTimeout = Duration.ofMillis(dispatchTimeoutMillis);
+		this.timeout = Duration.ofMillis(timeoutMillis);
+		this.maxAttempts = maxAttempts;
+	}
+
+	@Override
+	public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter, StepExecution managerStepExecution)
+			throws Exception {
+		List<Assignment> pending = new ArrayList<>();
+		for (StepExecution partition : stepSplitter.split(managerStepExecution, gridSize)) {
+			Assignment assignment = new Assignment(partition);
+			pending.add(assignment);
+			dispatch(assignment);
+		}
+
+		Instant deadline = Instant.now().plus(timeout);
+		List<StepExecution> results = new ArrayList<>(pending.size());
+		while (!pending.isEmpty()) {
+			Thread.sleep(pollIntervalMillis);
+			if (isStopping(managerStepExecution)) {
+				stopPending(managerStepExecution, pending);
+				throw new JobInterruptedException(managerStepExecution.getStepName() + " was stopped",
+						BatchStatus.STOPPED);
+			}
+			boolean timedOut = Instant.now().isAfter(deadline);
+
+			Iterator<Assignment> assignments = pending.iterator();
+			while (assignments.hasNext()) {
+				Assignment assignment = assignments.next();
+				StepExecution partition = jobExplorer.getStepExecution(managerStepExecution.getJobExecutionId(),
+						assignment.stepExecution.getId());
+				BatchStatus status = partition.getStatus();
+
+				if (timedOut && status.isRunning()) {
+					// a worker that committed in the meantime keeps it until the next poll
+					markFailed(partition, "Not finished within " + timeout);
+				} else if (status == BatchStatus.FAILED && !timedOut && assignment.attempts < maxAttempts) {
+					reassign(managerStepExecution, assignment, partition, "failed");
+				} else if (status == BatchStatus.STARTING && isUndelivered(assignment, partition)) {
+					if (markFailed(partition, "Not taken by a worker within " + dispatchTimeout)
+							&& assignment.attempts < maxAttempts) {
+						reassign(managerStepExecution, assignment, partition, "was not taken by a worker");
+					}
+				} else if (status.isRunning() && isLost(partition)) {
+					if (markFailed(partition, "No heartbeat within " + heartbeatTimeout)
+							&& assignment.attempts < maxAttempts) {
+						reassign(managerStepExecution, assignment, partition, "lost its worker");
+					}
+				} else if (!status.isRunning()) {
+					partitionChannel.clear(partition.getId());
+					results.add(partition);
+					assignments.remove();
+				}
+			}
+		}
+		return results;
+	}
+
+	private void dispatch(Assignment assignment) {
+		assignment.attempts++;
+		assignment.dispatchedAt = Instant.now();
+		StepExecution partition = assignment.stepExecution;
+		partitionChannel.send(new PartitionRequest(partition.getJobExecutionId(), partition.getId(), stepBeanName));
+	}
+
+	// a queued partition has no heartbeat yet, it is only lost once a worker took it and went silent
+	private boolean isLost(StepExecution partition) {
+		Optional<Instant> lastHeartbeat = partitionChannel.lastHeartbeat(partition.getId());
+		return lastHeartbeat.isPresent() && lastHeartbeat.get().plus(heartbeatTimeout).isBefore(Instant.now());
+	}
+
+	// the request or the worker that took it got lost before the first heartbeat, a request waiting behind busy
+	// workers is sent again as well once the dispatch timeout has passed
+	private boolean isUndelivered(Assignment assignment, StepExecution partition) {
+		return partitionChannel.lastHeartbeat(partition.getId()).isEmpty()
+				&& assignment.dispatchedAt.plus(dispatchTimeout).isBefore(Instant.now());
+	}
+
+	// the manager step is stopped through the job repository, the job execution is checked as well because the
+	// manager step is not saved while it waits
+	private boolean isStopping(StepExecution managerStepExecution) {
+		return managerStepExecution.isTerminateOnly()
+				|| jobExplorer.getJobExecution(managerStepExecution.getJobExecutionId()).isStopping();
+	}
+
+	// running partitions see the stop on their next commit, the ones still queued are stopped here
+	private void stopPending(StepExecution managerStepExecution, List<Assignment> pending) {
+		for (Assignment assignment : pending) {
+			StepExecution partition = jobExplorer.getStepExecution(managerStepExecution.getJobExecutionId(),
+					assignment.stepExecution.getId());
+			if (partition.getStatus() != BatchStatus.STARTING) {
+				continue;
+			}
+			partition.setStatus(BatchStatus.STOPPED);
+			partition.setExitStatus(ExitStatus.STOPPED);
+			partition.setEndTime(new Date());
+			try {
+				jobRepository.update(partition);
+				partitionChannel.clear(partition.getId());
+			} catch (OptimisticLockingFailureException e) {
+				log.warn(partition.getStepName() + " was taken by a worker while stopping : " + e.getMessage());
+			}
+		}
+	}
+
+	// the version bump also makes the next commit of a worker that is only slow fail, so it cannot keep writing
+	private boolean markFailed(StepExecution partition, String reason) {
+		partition.setStatus(BatchStatus.FAILED);
+		partition.setExitStatus(ExitStatus.FAILED.addExitDescription(reason));
+		partition.setEndTime(new Date());
+		try {
+			jobRepository.update(partition);
+			return true;
+		} catch (OptimisticLockingFailureException e) {
+			// the worker committed in the meantime, check it again on the next poll
+			return false;
+		}
+	}
+
+	private void reassign(StepExecution managerStepExecution, Assignment assignment, StepExecution partition,
+			String reason) {
+		partitionChannel.clear(partition.getId());
+		StepExecution retry = managerStepExecution.getJobExecution().createStepExecution(partition.getStepName());
+		retry.setExecutionContext(new ExecutionContext(partition.getExecutionContext()));
+		jobRepository.add(retry);
+
+		log.warn(partition.getStepName() + " " + reason + ", reassigned as step execution " + retry.getId()
+				+ " (attempt " + (assignment.attempts + 1) + " of " + maxAttempts + ")");
+		assignment.stepExecution = retry;
+		dispatch(assignment);
+	}
+
+	private static final class Assignment {
+		private StepExecution stepExecution;
+		private int attempts;
+		private Instant dispatchedAt;
+
+		private Assignment(StepExecution stepExecution) {
+			this.stepExecution = stepExecution;
+		}
+	}
+
+}
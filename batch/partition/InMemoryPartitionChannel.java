@@ -0,0 +1,43 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// single node channel, the manager and the workers share one JVM. Used for tests and as the default until a broker
+// backed channel is configured
+public class InMemoryPartitionChannel implements PartitionChannel {
+
+	private final BlockingQueue<PartitionRequest> requests = new LinkedBlockingQueue<>();
+	private final Map<Long, Instant> heartbeats = new ConcurrentHashMap<>();
+
+	@Override
+	public void send(PartitionRequest request) {
+		requests.add(request);
+	}
+
+	@Override
+	public PartitionRequest receive(long timeout, TimeUnit unit) throws InterruptedException {
+		return requests.poll(timeout, unit);
+	}
+
+	@Override
+	public void heartbeat(long stepExecutionId, String workerId) {
+		heartbeats.put(stepExecutionId, Instant.now());
+	}
+
+	@Override
+	public Optional<Instant> lastHeartbeat(long stepExecutionId) {
+		return Optional.ofNullable(heartbeats.get(stepExecutionId));
+	}
+
+	@Override
+	public void clear(long stepExecutionId) {
+		heartbeats.remove(stepExecutionId);
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// transport between the manager of a distributed partition step and the worker nodes. Every request is received by
+// exactly one worker, the heartbeats are stamped by the channel so the manager does not depend on the worker clocks.
+// Results are not sent back, the manager reads them from the shared JobRepository
+public interface PartitionChannel {
+
+	void send(PartitionRequest request);
+
+	// null when nothing arrived within the timeout
+	PartitionRequest receive(long timeout, TimeUnit unit) throws InterruptedException;
+
+	void heartbeat(long stepExecutionId, String workerId);
+
+	Optional<Instant> lastHeartbeat(long stepExecutionId);
+
+	void clear(long stepExecutionId);
+
+}
@@ -0,0 +1,17 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.io.Serializable;
+
+import lombok.Value;
+
+// the step execution is created by the manager and read back from the shared JobRepository by the worker
+@Value
+public class PartitionRequest implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	Long jobExecutionId;
+	Long stepExecutionId;
+	String stepBeanName;
+
+}
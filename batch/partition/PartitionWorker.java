@@ -0,0 +1,106 @@
+package com.synergensolutions.sbsservice.common.batch.partition;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.JobSynchronizationManager;
+import org.springframework.beans.factory.BeanFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+// executes the partitions received from the channel on this node. The worker steps are job scoped beans, so the
+// job execution of the partition is registered while the step is looked up and executed
+@Slf4j
+public class PartitionWorker {
+
+	private static final long RECEIVE_TIMEOUT_SECONDS = 1;
+
+	private final PartitionChannel partitionChannel;
+	private final JobExplorer jobExplorer;
+	private final BeanFactory beanFactory;
+	private final String workerId;
+	private final int concurrency;
+	private final long heartbeatIntervalMillis;
+
+	private final ExecutorService consumers;
+	private final ScheduledExecutorService heartbeats;
+	private volatile boolean running;
+
+	public PartitionWorker(PartitionChannel partitionChannel, JobExplorer jobExplorer, BeanFactory beanFactory,
+			String workerId, int concurrency, long heartbeatIntervalMillis) {
+		super();
+		this.partitionChannel = partitionChannel;
+		this.jobExplorer = jobExplorer;
+		this.beanFactory = beanFactory;
+		this.workerId = workerId;
+		this.concurrency = concurrency;
+		this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+		this.consumers = Executors.newFixedThreadPool(concurrency);
+		this.heartbeats = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	public void start() {
+		running = true;
+		for (int i = 0; i < concurrency; i++) {
+			consumers.execute(this::consume);
+		}
+		log.info("Partition worker " + workerId + " started with " + concurrency + " consumers");
+	}
+
+	public void stop() throws InterruptedException {
+		running = false;
+		consumers.shutdown();
+		consumers.awaitTermination(1, TimeUnit.MINUTES);
+		heartbeats.shutdownNow();
+	}
+
+	private void consume() {
+		while (running) {
+			try {
+				PartitionRequest request = partitionChannel.receive(RECEIVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				if (request != null) {
+					execute(request);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Failed to execute partition on " + workerId + " : " + e.getMessage());
+			}
+		}
+	}
+
+	private void execute(PartitionRequest request) {
+		StepExecution stepExecution = jobExplorer.getStepExecution(request.getJobExecutionId(),
+				request.getStepExecutionId());
+		// a partition the manager has given up on, it was reassigned under a new step execution
+		if (stepExecution == null || stepExecution.getStatus() != BatchStatus.STARTING) {
+			log.warn("Partition " + request.getStepExecutionId() + " is no longer pending, skipped");
+			return;
+		}
+
+		long stepExecutionId = stepExecution.getId();
+		ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+				() -> partitionChannel.heartbeat(stepExecutionId, workerId), 0, heartbeatIntervalMillis,
+				TimeUnit.MILLISECONDS);
+		JobSynchronizationManager.register(stepExecution.getJobExecution());
+		try {
+			Step step = beanFactory.getBean(request.getStepBeanName(), Step.class);
+			step.execute(stepExecution);
+		} catch (JobInterruptedException e) {
+			log.warn(stepExecution.getStepName() + " was interrupted on " + workerId);
+		} finally {
+			JobSynchronizationManager.close();
+			heartbeat.cancel(false);
+		}
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.synergensolutions.sbsservice.common.batch.processor;
+
+import java.util.function.Function;
+
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.core.task.TaskExecutor;
+
+// runs the CSVRowProcessor of every item of a chunk on the given executor, must be paired with CSVAsyncItemWriter
+public class CSVAsyncRowProcessor<I, O> extends AsyncItemProcessor<I, O> {
+
+	public CSVAsyncRowProcessor(Function<I, O> itemProcessingMachanism, TaskExecutor taskExecutor) {
+		super();
+		setDelegate(new CSVRowProcessor<>(itemProcessingMachanism));
+		setTaskExecutor(taskExecutor);
+	}
+
+}
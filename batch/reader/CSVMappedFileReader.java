@@ -0,0 +1,174 @@
+package com.synergensolutions.sbsservice.common.batch.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.DefaultFieldSet;
+
+import com.synergensolutions.sbsservice.common.batch.partition.CSVByteRangePartitioner;
+
+// reads the records of one byte range (see CSVByteRangePartitioner) from a memory mapped CSV file, fields are
+// tokenised straight from the mapped bytes and only the requested columns are decoded to strings
+public class CSVMappedFileReader<T> implements ItemStreamReader<T> {
+
+	private static final String POSITION_KEY = CSVMappedFileReader.class.getSimpleName() + ".position";
+	private static final byte DEFAULT_DELIMITER = ',';
+	private static final byte QUOTE = '"';
+	private static final byte NEW_LINE = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+
+	private final File csvFile;
+	private final long startOffset;
+	private final long endOffset;
+	private final String[] names;
+	private final int[] slotOfColumn;
+	private final FieldSetMapper<T> fieldSetMapper;
+	private final byte delimiter;
+	private final Charset charset;
+
+	private MappedByteBuffer buffer;
+	private byte[] fieldBytes = new byte[256];
+	private String[] values;
+	private int position;
+
+	public CSVMappedFileReader(File csvFile, long startOffset, long endOffset, List<String> csvHeaders,
+			String[] names, FieldSetMapper<T> fieldSetMapper) {
+		this(csvFile, startOffset, endOffset, csvHeaders, names, fieldSetMapper, DEFAULT_DELIMITER,
+				StandardCharsets.UTF_8);
+	}
+
+	public CSVMappedFileReader(File csvFile, long startOffset, long endOffset, List<String> csvHeaders,
+			String[] names, FieldSetMapper<T> fieldSetMapper, byte delimiter, Charset charset) {
+		super();
+		if (endOffset - startOffset > CSVByteRangePartitioner.MAX_RANGE_SIZE) {
+			throw new IllegalArgumentException("Byte range " + startOffset + "-" + endOffset + " is too large to map");
+		}
+		this.csvFile = csvFile;
+		this.startOffset = startOffset;
+		this.endOffset = endOffset;
+		this.names = names.clone();
+		this.fieldSetMapper = fieldSetMapper;
+		this.delimiter = delimiter;
+		this.charset = charset;
+
+		this.slotOfColumn = new int[csvHeaders.size()];
+		Arrays.fill(slotOfColumn, -1);
+		for (int slot = 0; slot < names.length; slot++) {
+			int column = csvHeaders.indexOf(names[slot]);
+			if (column < 0) {
+				throw new IllegalArgumentException("Column " + names[slot] + " is not in " + csvHeaders);
+			}
+			slotOfColumn[column] = slot;
+		}
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		try (FileChannel channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, startOffset, endOffset - startOffset);
+		} catch (IOException e) {
+			throw new ItemStreamException("Failed to map " + csvFile.getAbsolutePath(), e);
+		}
+		// the saved position is relative to the start of the range
+		position = executionContext.containsKey(POSITION_KEY) ? executionContext.getInt(POSITION_KEY) : 0;
+		values = new String[names.length];
+	}
+
+	@Override
+	public T read() throws Exception {
+		int limit = buffer.limit();
+		if (position >= limit) {
+			return null;
+		}
+
+		Arrays.fill(values, null);
+		int column = 0;
+		int fieldStart = position;
+		boolean inQuotes = false;
+		boolean quoted = false;
+		int i = position;
+		for (; i < limit; i++) {
+			byte b = buffer.get(i);
+			if (b == QUOTE) {
+				inQuotes = !inQuotes;
+				quoted = true;
+			} else if (!inQuotes && (b == delimiter || b == NEW_LINE)) {
+				decodeField(column++, fieldStart, i, quoted);
+				fieldStart = i + 1;
+				quoted = false;
+				if (b == NEW_LINE) {
+					break;
+				}
+			}
+		}
+		// last record of the file without a trailing line break
+		if (i == limit) {
+			decodeField(column, fieldStart, limit, quoted);
+		}
+		position = i + 1;
+
+		return fieldSetMapper.mapFieldSet(new DefaultFieldSet(values.clone(), names));
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		executionContext.putInt(POSITION_KEY, Math.min(position, buffer.limit()));
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		// a MappedByteBuffer is unmapped once it is garbage collected
+		buffer = null;
+	}
+
+	private void decodeField(int column, int start, int end, boolean quoted) {
+		if (column >= slotOfColumn.length || slotOfColumn[column] < 0) {
+			return;
+		}
+		if (end > start && buffer.get(end - 1) == CARRIAGE_RETURN) {
+			end--;
+		}
+		int length = 0;
+		if (quoted) {
+			// drops the enclosing quotes and turns each escaped "" into a single quote
+			ensureCapacity(end - start);
+			boolean inQuotes = false;
+			for (int i = start; i < end; i++) {
+				byte b = buffer.get(i);
+				if (b != QUOTE) {
+					fieldBytes[length++] = b;
+				} else if (inQuotes && i + 1 < end && buffer.get(i + 1) == QUOTE) {
+					fieldBytes[length++] = QUOTE;
+					i++;
+				} else {
+					inQuotes = !inQuotes;
+				}
+			}
+		} else {
+			length = end - start;
+			ensureCapacity(length);
+			for (int i = 0; i < length; i++) {
+				fieldBytes[i] = buffer.get(start + i);
+			}
+		}
+		values[slotOfColumn[column]] = new String(fieldBytes, 0, length, charset);
+	}
+
+	private void ensureCapacity(int length) {
+		if (fieldBytes.length < length) {
+			fieldBytes = new byte[Math.max(length, fieldBytes.length * 2)];
+		}
+	}
+
+}
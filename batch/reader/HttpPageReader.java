@@ -0,0 +1,166 @@
+package com.synergensolutions.sbsservice.common.batch.reader;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+// reads a paginated endpoint page by page instead of one round trip per item. The next prefetchPages pages are
+// fetched concurrently while the current one is read, at most that many pages are in flight or buffered so a slow
+// step holds the fetching back. A failed page is retried with exponential back off before the read fails, the
+// next read requests the failed page again so a skipped or retried read never ends the input early. The pages are
+// returned in order, a page shorter than pageSize (or empty) is the last one. Restart continues from the page of the
+// last committed item
+@Slf4j
+public class HttpPageReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+	@FunctionalInterface
+	public interface PageFetcher<T> {
+
+		// page numbers start at 0. Called from the prefetch threads, concurrently and outside the chunk transaction,
+		// so it must be thread-safe and must not depend on the transaction of the step
+		List<T> fetch(int page, int pageSize) throws Exception;
+
+	}
+
+	private final PageFetcher<T> pageFetcher;
+	private final int pageSize;
+	private final int prefetchPages;
+	private final int maxAttempts;
+	private final long backOffMillis;
+
+	private final Deque<Future<List<T>>> prefetchedPages = new ArrayDeque<>();
+
+	private ExecutorService fetchExecutor;
+	private Iterator<T> currentPage = Collections.emptyIterator();
+	private int nextPage;
+	private int skipItems;
+	private boolean lastPageFetched;
+
+	public HttpPageReader(PageFetcher<T> pageFetcher, int pageSize, int prefetchPages, int maxAttempts,
+			long backOffMillis) {
+		super();
+		setName(ClassUtils.getShortName(HttpPageReader.class));
+		this.pageFetcher = pageFetcher;
+		this.pageSize = pageSize;
+		this.prefetchPages = Math.max(prefetchPages, 1);
+		this.maxAttempts = Math.max(maxAttempts, 1);
+		this.backOffMillis = backOffMillis;
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		fetchExecutor = Executors.newFixedThreadPool(prefetchPages, new PrefetchThreadFactory());
+		nextPage = 0;
+		skipItems = 0;
+		lastPageFetched = false;
+	}
+
+	// called by open on restart, the pages are only requested with the first read
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+		nextPage = itemIndex / pageSize;
+		skipItems = itemIndex % pageSize;
+	}
+
+	@Override
+	protected T doRead() throws Exception {
+		while (!currentPage.hasNext()) {
+			prefetch();
+			Future<List<T>> page = prefetchedPages.poll();
+			if (page == null) {
+				return null;
+			}
+			List<T> items = awaitPage(page, nextPage - prefetchedPages.size() - 1);
+			if (items.size() < pageSize) {
+				lastPageFetched = true;
+				cancelPrefetchedPages();
+			}
+			currentPage = items.subList(Math.min(skipItems, items.size()), items.size()).iterator();
+			skipItems = 0;
+			prefetch();
+		}
+		return currentPage.next();
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		cancelPrefetchedPages();
+		currentPage = Collections.emptyIterator();
+		if (fetchExecutor != null) {
+			fetchExecutor.shutdownNow();
+			fetchExecutor = null;
+		}
+	}
+
+	// keeps prefetchPages pages requested ahead of the page being read
+	private void prefetch() {
+		while (!lastPageFetched && prefetchedPages.size() < prefetchPages) {
+			int page = nextPage++;
+			prefetchedPages.add(fetchExecutor.submit(() -> fetchWithRetry(page)));
+		}
+	}
+
+	private List<T> fetchWithRetry(int page) throws Exception {
+		long backOff = backOffMillis;
+		for (int attempt = 1;; attempt++) {
+			try {
+				List<T> items = pageFetcher.fetch(page, pageSize);
+				return items == null ? Collections.emptyList() : items;
+			} catch (Exception e) {
+				if (attempt >= maxAttempts) {
+					throw e;
+				}
+				log.warn("Failed to fetch page " + page + " (attempt " + attempt + " of " + maxAttempts + ") : "
+						+ e.getMessage());
+				Thread.sleep(backOff);
+				backOff *= 2;
+			}
+		}
+	}
+
+	private List<T> awaitPage(Future<List<T>> page, int pageNumber) throws Exception {
+		try {
+			return page.get();
+		} catch (ExecutionException e) {
+			cancelPrefetchedPages();
+			nextPage = pageNumber;
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	// pages requested past the last one are empty anyway
+	private void cancelPrefetchedPages() {
+		for (Future<List<T>> page : prefetchedPages) {
+			page.cancel(true);
+		}
+		prefetchedPages.clear();
+	}
+
+	private static final class PrefetchThreadFactory implements ThreadFactory {
+		private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "http-page-prefetch-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
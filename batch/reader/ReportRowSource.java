@@ -0,0 +1,21 @@
+package com.synergensolutions.sbsservice.common.batch.reader;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+// rows of a spreadsheet report produced page by page, so the report can be written by a chunked step instead of
+// being generated as a whole. Report factories implement it next to AbstractMonthlyReportFactory.generate
+public interface ReportRowSource {
+
+	String JOB_PARAM_NAME = "reportRowSource";
+	String JOB_PARAM_EXPRESSION = "#{jobParameters['" + JOB_PARAM_NAME + "']}";
+
+	String title(LocalDate from, LocalDate to);
+
+	Collection<String> headers();
+
+	// page numbers start at 0, a page shorter than pageSize (or empty) is the last one
+	List<List<String>> rows(LocalDate from, LocalDate to, int page, int pageSize);
+
+}
@@ -0,0 +1,41 @@
+package com.synergensolutions.sbsservice.common.batch.reader;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.batch.item.data.AbstractPaginatedDataItemReader;
+import org.springframework.util.ClassUtils;
+
+// reads a ReportRowSource page by page on the step thread, inside the chunk transaction, so a JPA or JDBC backed
+// factory runs with the transaction of the step and is never called concurrently. A page shorter than the page
+// size is the last one, the empty page after it is not requested
+public class ReportRowSourceReader extends AbstractPaginatedDataItemReader<List<String>> {
+
+	private final ReportRowSource rowSource;
+	private final LocalDate from;
+	private final LocalDate to;
+
+	private boolean lastPageRead;
+
+	public ReportRowSourceReader(ReportRowSource rowSource, LocalDate from, LocalDate to, int pageSize) {
+		super();
+		this.rowSource = rowSource;
+		this.from = from;
+		this.to = to;
+		setPageSize(pageSize);
+		setName(ClassUtils.getShortName(ReportRowSourceReader.class));
+	}
+
+	@Override
+	protected Iterator<List<String>> doPageRead() {
+		if (lastPageRead) {
+			return Collections.emptyIterator();
+		}
+		List<List<String>> rows = rowSource.rows(from, to, page, pageSize);
+		lastPageRead = rows.size() < pageSize;
+		return rows.iterator();
+	}
+
+}
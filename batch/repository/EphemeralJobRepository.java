@@ -0,0 +1,119 @@
+package com.synergensolutions.sbsservice.common.batch.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+// JobRepository that keeps the per chunk state of ephemeral steps in memory. For the steps matching the predicate
+// only every updateInterval-th step execution update and execution context write made while the step is running
+// reaches the database, next to the creation of the job and step executions and the final state of every step.
+// The context of the last commit is still written when a step fails, so a failed run restarts from there, a crash
+// of the JVM loses the progress since the last written update. A stop request is noticed on the next written
+// update. Every other step goes straight to the delegate
+public class EphemeralJobRepository implements JobRepository {
+
+	private final JobRepository delegate;
+	private final Predicate<StepExecution> ephemeralSteps;
+	private final int updateInterval;
+	private final Map<Long, Integer> skippedUpdates = new ConcurrentHashMap<>();
+
+	public EphemeralJobRepository(JobRepository delegate, Predicate<StepExecution> ephemeralSteps,
+			int updateInterval) {
+		super();
+		this.delegate = delegate;
+		this.ephemeralSteps = ephemeralSteps;
+		this.updateInterval = Math.max(updateInterval, 1);
+	}
+
+	@Override
+	public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+		return delegate.isJobInstanceExists(jobName, jobParameters);
+	}
+
+	@Override
+	public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+		return delegate.createJobInstance(jobName, jobParameters);
+	}
+
+	@Override
+	public JobExecution createJobExecution(JobInstance jobInstance, JobParameters jobParameters,
+			String jobConfigurationLocation) {
+		return delegate.createJobExecution(jobInstance, jobParameters, jobConfigurationLocation);
+	}
+
+	@Override
+	public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+			throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+		return delegate.createJobExecution(jobName, jobParameters);
+	}
+
+	@Override
+	public void update(JobExecution jobExecution) {
+		delegate.update(jobExecution);
+	}
+
+	@Override
+	public void add(StepExecution stepExecution) {
+		delegate.add(stepExecution);
+	}
+
+	@Override
+	public void addAll(Collection<StepExecution> stepExecutions) {
+		delegate.addAll(stepExecutions);
+	}
+
+	@Override
+	public void update(StepExecution stepExecution) {
+		if (isKeptInMemory(stepExecution)) {
+			skippedUpdates.merge(stepExecution.getId(), 1, Integer::sum);
+			return;
+		}
+		skippedUpdates.remove(stepExecution.getId());
+		delegate.update(stepExecution);
+	}
+
+	// a chunk writes the context before the step execution, both are written for the same chunk
+	@Override
+	public void updateExecutionContext(StepExecution stepExecution) {
+		if (isKeptInMemory(stepExecution)) {
+			return;
+		}
+		delegate.updateExecutionContext(stepExecution);
+	}
+
+	@Override
+	public void updateExecutionContext(JobExecution jobExecution) {
+		delegate.updateExecutionContext(jobExecution);
+	}
+
+	@Override
+	public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+		return delegate.getLastStepExecution(jobInstance, stepName);
+	}
+
+	@Override
+	public int getStepExecutionCount(JobInstance jobInstance, String stepName) {
+		return delegate.getStepExecutionCount(jobInstance, stepName);
+	}
+
+	@Override
+	public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+		return delegate.getLastJobExecution(jobName, jobParameters);
+	}
+
+	private boolean isKeptInMemory(StepExecution stepExecution) {
+		return stepExecution.getStatus().isRunning() && ephemeralSteps.test(stepExecution)
+				&& skippedUpdates.getOrDefault(stepExecution.getId(), 0) < updateInterval - 1;
+	}
+
+}
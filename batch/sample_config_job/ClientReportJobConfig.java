@@ -1,26 +1,45 @@
 package com.synergensolutions.sbsservice.reports.config;
 
+import com.synergensolutions.sbsservice.common.batch.chunk.AdaptiveChunkSizePolicy;
+import com.synergensolutions.sbsservice.common.batch.config.ReportChunkSizing;
+import com.synergensolutions.sbsservice.common.batch.config.ReportDistributedPartitioning;
+import com.synergensolutions.sbsservice.common.batch.config.ReportStepFaultTolerance;
+import com.synergensolutions.sbsservice.common.batch.incremental.IncrementalReportListener;
+import com.synergensolutions.sbsservice.common.batch.listener.SkippedRowListener;
+import com.synergensolutions.sbsservice.common.batch.listener.StepMetricsListener;
+import com.synergensolutions.sbsservice.common.batch.partition.ColumnRangePartitioner;
 import com.synergensolutions.sbsservice.common.batch.processor.CSVRowProcessor;
 import com.synergensolutions.sbsservice.common.batch.writer.CSVItemCompositeWriter;
+import com.synergensolutions.sbsservice.common.batch.writer.PreparedItemStreamWriter;
 import com.synergensolutions.sbsservice.reports.dto.ClientOutputRow;
 import com.synergensolutions.sbsservice.reports.mapper.ClientOutputRowMapper;
 import com.synergensolutions.sbsservice.reports.reader.DBReader;
 import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
+import com.synergensolutions.sbsservice.reports.writer.CSVCompressedItemWriter;
 import com.synergensolutions.sbsservice.reports.writer.CSVFlatFileItemWriter;
+import com.synergensolutions.sbsservice.reports.writer.CSVPartMergeTasklet;
+import com.synergensolutions.sbsservice.reports.writer.DeltaSegmentMergeTasklet;
+import com.synergensolutions.sbsservice.reports.writer.ReportOutputFormat;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import javax.sql.DataSource;
 import java.io.File;
+import java.sql.Timestamp;
 import java.util.Arrays;
 
 @Configuration
@@ -31,16 +50,44 @@ public class ClientReportJobConfig {
 			"currencyCode", "reportPreference", "gdpr", "invoiceTemplate", "statementTemplate", "billingDuration",
 			"billTo", "dueDatePeriod", "noOfBuckets", "bucketPeriod" };
 
+	private static final String CLIENT_REPORT_VIEW = "client_report_view";
+	private static final String CLIENT_REPORT_PARTITION_COLUMN = "id";
+	private static final String CLIENT_REPORT_UPDATED_COLUMN = "updated_at";
+	// limsId, the first of CLIENT_REPORT_FIELDS
+	private static final int CLIENT_REPORT_KEY_COLUMN = 0;
+
 	private final JobBuilderFactory jobBuilderFactory;
 	private final StepBuilderFactory stepBuilderFactory;
 	private final DataSource dataSource;
+	private final TaskExecutor partitionTaskExecutor;
+	private final TaskExecutor writerTaskExecutor;
+	private final int partitionGridSize;
+	private final MeterRegistry meterRegistry;
+	private final ReportStepFaultTolerance faultTolerance;
+	private final ReportChunkSizing chunkSizing;
+	private final ReportDistributedPartitioning distributedPartitioning;
+	private final boolean incremental;
 
 	public ClientReportJobConfig(final JobBuilderFactory jobBuilderFactory, final StepBuilderFactory stepBuilderFactory,
-			final DataSource dataSource) {
+			final DataSource dataSource, final MeterRegistry meterRegistry,
+			final ReportStepFaultTolerance faultTolerance, final ReportChunkSizing chunkSizing,
+			final ReportDistributedPartitioning distributedPartitioning,
+			final @Qualifier("reportPartitionTaskExecutor") TaskExecutor partitionTaskExecutor,
+			final @Qualifier("reportWriterTaskExecutor") TaskExecutor writerTaskExecutor,
+			@Value("${report.partition.grid_size:1}") final int partitionGridSize,
+			@Value("${report.client.incremental:false}") final boolean incremental) {
 		super();
 		this.jobBuilderFactory = jobBuilderFactory;
 		this.stepBuilderFactory = stepBuilderFactory;
 		this.dataSource = dataSource;
+		this.partitionTaskExecutor = partitionTaskExecutor;
+		this.writerTaskExecutor = writerTaskExecutor;
+		this.partitionGridSize = partitionGridSize;
+		this.meterRegistry = meterRegistry;
+		this.faultTolerance = faultTolerance;
+		this.chunkSizing = chunkSizing;
+		this.distributedPartitioning = distributedPartitioning;
+		this.incremental = incremental;
 	}
 
 	@Bean
@@ -50,37 +97,205 @@ public class ClientReportJobConfig {
 
 	@Bean
 	@StepScope
-	public CSVFlatFileItemWriter<ClientOutputRow> clientOutputWriter(
-			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl) {
+	public PreparedItemStreamWriter<ClientOutputRow> clientOutputWriter(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl,
+			@Value(ReportOutputFormat.JOB_PARAM_EXPRESSION) String outputFormat) {
 		File outputFile = new File(outputFileUrl);
-		return new CSVFlatFileItemWriter<>(outputFile, true, CLIENT_REPORT_FIELDS, CommonConstants.CLIENT_HEADER_ROW,
+		ReportOutputFormat format = ReportOutputFormat.fromJobParameter(outputFormat);
+		if (format != ReportOutputFormat.CSV) {
+			return new CSVCompressedItemWriter<>(outputFile, format, CLIENT_REPORT_FIELDS,
+					CommonConstants.CLIENT_HEADER_ROW, "");
+		}
+		// the output path is stable per report event, a fresh run replaces a leftover file and a restart truncates
+		// it back to the last committed chunk
+		return new CSVFlatFileItemWriter<>(outputFile, false, CLIENT_REPORT_FIELDS, CommonConstants.CLIENT_HEADER_ROW,
 				"");
 	}
 
 	@Bean(destroyMethod = "")
 	@StepScope
-	public DBReader<ClientOutputRow> clientOutputRowReader() {
-		return new DBReader<>(dataSource, "SELECT * FROM client_report_view", new ClientOutputRowMapper());
+	public DBReader<ClientOutputRow> clientOutputRowReader(
+			@Value(ReportOutputFormat.JOB_PARAM_EXPRESSION) String outputFormat) {
+		DBReader<ClientOutputRow> reader = new DBReader<>(dataSource,
+				"SELECT * FROM " + CLIENT_REPORT_VIEW + " ORDER BY " + CLIENT_REPORT_PARTITION_COLUMN,
+				new ClientOutputRowMapper());
+		// a compressed output is rewritten from the start on restart, so the rows have to be read again as well
+		reader.setSaveState(ReportOutputFormat.fromJobParameter(outputFormat) == ReportOutputFormat.CSV);
+		return reader;
 	}
 
+	// further sinks are added to the delegate list, their lines are formatted in parallel and written on the step
+	// thread in list order
 	@Bean
 	public CSVItemCompositeWriter<ClientOutputRow> clientExportCompositeWriter() {
-		return new CSVItemCompositeWriter<>(Arrays.asList(clientOutputWriter("")));
+		return new CSVItemCompositeWriter<>(Arrays.asList(clientOutputWriter("", null)), writerTaskExecutor,
+				meterRegistry);
+	}
+
+	@Bean
+	@StepScope
+	public StepMetricsListener clientReportStepMetricsListener() {
+		return new StepMetricsListener(meterRegistry);
+	}
+
+	@Bean
+	@StepScope
+	public SkippedRowListener<ClientOutputRow> clientReportSkippedRowListener(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl) {
+		return new SkippedRowListener<>(SkippedRowListener.skippedFile(new File(outputFileUrl)), CLIENT_REPORT_FIELDS);
+	}
+
+	@Bean
+	@StepScope
+	public AdaptiveChunkSizePolicy clientReportChunkSizePolicy(
+			@Value(CommonConstants.BATCH_SIZE_JOB_PARAM_EXPRESSION) Long batchSize) {
+		return chunkSizing.policy(Math.toIntExact(batchSize));
 	}
 
+	// only the plain CSV writer truncates a rolled back chunk, the compressed output cannot be made fault tolerant
 	@Bean
 	@JobScope
-	public Step clientReportJobStep(@Value(CommonConstants.BATCH_SIZE_JOB_PARAM_EXPRESSION) Long batchSize) {
-		return stepBuilderFactory.get("ClientReportJobStep")
-				.<ClientOutputRow, ClientOutputRow>chunk(Math.toIntExact(batchSize)).reader(clientOutputRowReader())
-				.processor(clientExportProcessor()).writer(clientExportCompositeWriter()).build();
+	public Step clientReportJobStep(@Value(ReportOutputFormat.JOB_PARAM_EXPRESSION) String outputFormat) {
+		return StepMetricsListener.register(faultTolerance.apply(stepBuilderFactory.get("ClientReportJobStep")
+				.<ClientOutputRow, ClientOutputRow>chunk(clientReportChunkSizePolicy(null))
+				.reader(clientOutputRowReader(null)).processor(clientExportProcessor())
+				.writer(clientExportCompositeWriter()), clientReportSkippedRowListener(""),
+				ReportOutputFormat.fromJobParameter(outputFormat) == ReportOutputFormat.CSV),
+				clientReportStepMetricsListener()).listener((StepExecutionListener) clientReportChunkSizePolicy(null))
+				.build();
+	}
+
+	@Bean
+	public ColumnRangePartitioner clientReportPartitioner() {
+		return new ColumnRangePartitioner(dataSource, CLIENT_REPORT_VIEW, CLIENT_REPORT_PARTITION_COLUMN);
+	}
+
+	@Bean(destroyMethod = "")
+	@StepScope
+	public DBReader<ClientOutputRow> clientOutputRowPartitionReader(
+			@Value(ColumnRangePartitioner.MIN_VALUE_EXPRESSION) Long minValue,
+			@Value(ColumnRangePartitioner.MAX_VALUE_EXPRESSION) Long maxValue) {
+		return new DBReader<>(dataSource,
+				"SELECT * FROM " + CLIENT_REPORT_VIEW + " WHERE " + CLIENT_REPORT_PARTITION_COLUMN
+						+ " BETWEEN ? AND ? ORDER BY " + CLIENT_REPORT_PARTITION_COLUMN,
+				new Object[] { minValue, maxValue }, new ClientOutputRowMapper());
+	}
+
+	@Bean
+	@StepScope
+	public CSVFlatFileItemWriter<ClientOutputRow> clientOutputPartWriter(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl,
+			@Value(CSVPartMergeTasklet.JOB_INSTANCE_ID_EXPRESSION) Long jobInstanceId,
+			@Value(ColumnRangePartitioner.PARTITION_INDEX_EXPRESSION) Integer partitionIndex) {
+		File partFile = CSVPartMergeTasklet.partFile(new File(outputFileUrl), jobInstanceId, partitionIndex);
+		return new CSVFlatFileItemWriter<>(partFile, CLIENT_REPORT_FIELDS);
+	}
+
+	@Bean
+	@StepScope
+	public SkippedRowListener<ClientOutputRow> clientReportPartSkippedRowListener(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl,
+			@Value(CSVPartMergeTasklet.JOB_INSTANCE_ID_EXPRESSION) Long jobInstanceId,
+			@Value(ColumnRangePartitioner.PARTITION_INDEX_EXPRESSION) Integer partitionIndex) {
+		File partFile = CSVPartMergeTasklet.partFile(new File(outputFileUrl), jobInstanceId, partitionIndex);
+		return new SkippedRowListener<>(SkippedRowListener.skippedFile(partFile), CLIENT_REPORT_FIELDS);
+	}
+
+	@Bean
+	@JobScope
+	public Step clientReportWorkerStep() {
+		return StepMetricsListener.register(faultTolerance.apply(stepBuilderFactory.get("ClientReportWorkerStep")
+				.<ClientOutputRow, ClientOutputRow>chunk(clientReportChunkSizePolicy(null))
+				.reader(clientOutputRowPartitionReader(null, null)).processor(clientExportProcessor())
+				.writer(clientOutputPartWriter("", null, null)), clientReportPartSkippedRowListener("", null, null),
+				true), clientReportStepMetricsListener())
+				.listener((StepExecutionListener) clientReportChunkSizePolicy(null)).build();
+	}
+
+	@Bean
+	@JobScope
+	public Step clientReportPartitionStep() {
+		PartitionStepBuilder partitionStepBuilder = stepBuilderFactory.get("ClientReportPartitionStep")
+				.partitioner("ClientReportWorkerStep", clientReportPartitioner());
+		if (distributedPartitioning.isEnabled()) {
+			return partitionStepBuilder.partitionHandler(
+					distributedPartitioning.partitionHandler("clientReportWorkerStep", partitionGridSize)).build();
+		}
+		return partitionStepBuilder.step(clientReportWorkerStep()).gridSize(partitionGridSize)
+				.taskExecutor(partitionTaskExecutor).build();
+	}
+
+	@Bean
+	@JobScope
+	public Step clientReportMergeStep(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl,
+			@Value(ReportOutputFormat.JOB_PARAM_EXPRESSION) String outputFormat) {
+		return stepBuilderFactory.get("ClientReportMergeStep")
+				.tasklet(new CSVPartMergeTasklet(new File(outputFileUrl), CommonConstants.CLIENT_HEADER_ROW, "",
+						ReportOutputFormat.fromJobParameter(outputFormat)))
+				.build();
+	}
+
+	// incremental mode, only the rows changed since the watermark are read and merged with the segment of the
+	// earlier runs. Needs an updated_at column on the view that is set on every change
+	@Bean(destroyMethod = "")
+	@StepScope
+	public DBReader<ClientOutputRow> clientOutputRowDeltaReader(
+			@Value(IncrementalReportListener.WATERMARK_EXPRESSION) Timestamp watermark) {
+		return new DBReader<>(dataSource,
+				"SELECT * FROM " + CLIENT_REPORT_VIEW + " WHERE " + CLIENT_REPORT_UPDATED_COLUMN + " > ? ORDER BY "
+						+ CLIENT_REPORT_PARTITION_COLUMN,
+				new Object[] { watermark }, new ClientOutputRowMapper());
+	}
+
+	@Bean
+	@StepScope
+	public CSVFlatFileItemWriter<ClientOutputRow> clientOutputDeltaWriter(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl) {
+		return new CSVFlatFileItemWriter<>(DeltaSegmentMergeTasklet.deltaFile(new File(outputFileUrl)),
+				CLIENT_REPORT_FIELDS);
+	}
+
+	@Bean
+	@JobScope
+	public Step clientReportDeltaStep() {
+		return StepMetricsListener.register(faultTolerance.apply(stepBuilderFactory.get("ClientReportDeltaStep")
+				.<ClientOutputRow, ClientOutputRow>chunk(clientReportChunkSizePolicy(null))
+				.reader(clientOutputRowDeltaReader(null)).processor(clientExportProcessor())
+				.writer(clientOutputDeltaWriter("")), clientReportSkippedRowListener(""), true),
+				clientReportStepMetricsListener()).listener((StepExecutionListener) clientReportChunkSizePolicy(null))
+				.build();
+	}
+
+	@Bean
+	@JobScope
+	public Step clientReportSegmentMergeStep(
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl,
+			@Value(ReportOutputFormat.JOB_PARAM_EXPRESSION) String outputFormat,
+			@Value(IncrementalReportListener.SEGMENT_PATH_EXPRESSION) String segmentPath) {
+		File outputFile = new File(outputFileUrl);
+		return stepBuilderFactory.get("ClientReportSegmentMergeStep")
+				.tasklet(new DeltaSegmentMergeTasklet(new File(segmentPath),
+						DeltaSegmentMergeTasklet.deltaFile(outputFile), outputFile, CLIENT_REPORT_KEY_COLUMN,
+						CommonConstants.CLIENT_HEADER_ROW, "", ReportOutputFormat.fromJobParameter(outputFormat)))
+				.build();
 	}
 
 	@Bean
 	@Qualifier("ClientReportJob")
-	public Job clientReportJob(JobCompletionNotificationListener listener) {
+	public Job clientReportJob(JobCompletionNotificationListener listener,
+			IncrementalReportListener incrementalReportListener) {
+		if (incremental) {
+			return jobBuilderFactory.get("ClientReportJob").incrementer(new RunIdIncrementer())
+					.listener(incrementalReportListener).listener(listener).start(clientReportDeltaStep())
+					.next(clientReportSegmentMergeStep("", null, "")).build();
+		}
+		if (partitionGridSize > 1) {
+			return jobBuilderFactory.get("ClientReportJob").incrementer(new RunIdIncrementer()).listener(listener)
+					.start(clientReportPartitionStep()).next(clientReportMergeStep("", null)).build();
+		}
 		return jobBuilderFactory.get("ClientReportJob").incrementer(new RunIdIncrementer()).listener(listener)
-				.start(clientReportJobStep(0L)).build();
+				.start(clientReportJobStep(null)).build();
 	}
 
 }
@@ -0,0 +1,122 @@
+package com.synergensolutions.sbsservice.reports.config;
+
+import com.synergensolutions.sbsservice.common.batch.chunk.AdaptiveChunkSizePolicy;
+import com.synergensolutions.sbsservice.common.batch.config.ReportChunkSizing;
+import com.synergensolutions.sbsservice.common.batch.listener.StepMetricsListener;
+import com.synergensolutions.sbsservice.common.batch.reader.ReportRowSource;
+import com.synergensolutions.sbsservice.common.batch.reader.ReportRowSourceReader;
+import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
+import com.synergensolutions.sbsservice.reports.writer.XSSFExcelItemWriter;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// spreadsheet reports of the factories that implement ReportRowSource, the job parameter names the factory bean.
+// Pages of rows are read into a streaming workbook chunk by chunk, so neither the rows nor the finished file are
+// ever held on the heap, and the file is uploaded by the completion listener like the CSV reports
+@Configuration
+public class DoctrixReportJobConfig {
+
+	private static final String FROM_DATE_EXPRESSION = "#{jobParameters['" + CommonConstants.FROM_DATE_JOB_PARAM_NAME
+			+ "']}";
+	private static final String TO_DATE_EXPRESSION = "#{jobParameters['" + CommonConstants.TO_DATE_JOB_PARAM_NAME
+			+ "']}";
+
+	private static final int ROW_WINDOW_SIZE = 100;
+
+	private final JobBuilderFactory jobBuilderFactory;
+	private final StepBuilderFactory stepBuilderFactory;
+	private final BeanFactory beanFactory;
+	private final MeterRegistry meterRegistry;
+	private final ReportChunkSizing chunkSizing;
+
+	public DoctrixReportJobConfig(final JobBuilderFactory jobBuilderFactory,
+			final StepBuilderFactory stepBuilderFactory, final BeanFactory beanFactory,
+			final MeterRegistry meterRegistry, final ReportChunkSizing chunkSizing) {
+		super();
+		this.jobBuilderFactory = jobBuilderFactory;
+		this.stepBuilderFactory = stepBuilderFactory;
+		this.beanFactory = beanFactory;
+		this.meterRegistry = meterRegistry;
+		this.chunkSizing = chunkSizing;
+	}
+
+	@Bean(destroyMethod = "")
+	@StepScope
+	public ReportRowSourceReader doctrixReportRowReader(
+			@Value(ReportRowSource.JOB_PARAM_EXPRESSION) String rowSourceName,
+			@Value(FROM_DATE_EXPRESSION) String fromDate, @Value(TO_DATE_EXPRESSION) String toDate,
+			@Value(CommonConstants.BATCH_SIZE_JOB_PARAM_EXPRESSION) Long batchSize) {
+		ReportRowSource rowSource = beanFactory.getBean(rowSourceName, ReportRowSource.class);
+		// a factory can read through JPA, its pages are fetched on the step thread inside the chunk transaction
+		ReportRowSourceReader reader = new ReportRowSourceReader(rowSource, parseDate(fromDate), parseDate(toDate),
+				Math.toIntExact(batchSize));
+		// the workbook is written again from the first row on restart
+		reader.setSaveState(false);
+		return reader;
+	}
+
+	@Bean
+	@StepScope
+	public XSSFExcelItemWriter doctrixReportWriter(
+			@Value(ReportRowSource.JOB_PARAM_EXPRESSION) String rowSourceName,
+			@Value(FROM_DATE_EXPRESSION) String fromDate, @Value(TO_DATE_EXPRESSION) String toDate,
+			@Value(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_EXPRESSION) String outputFileUrl) {
+		ReportRowSource rowSource = beanFactory.getBean(rowSourceName, ReportRowSource.class);
+		return new XSSFExcelItemWriter(new File(outputFileUrl), rowSource.title(parseDate(fromDate), parseDate(toDate)),
+				rowSource.headers(), ROW_WINDOW_SIZE);
+	}
+
+	@Bean
+	@StepScope
+	public StepMetricsListener doctrixReportStepMetricsListener() {
+		return new StepMetricsListener(meterRegistry);
+	}
+
+	@Bean
+	@StepScope
+	public AdaptiveChunkSizePolicy doctrixReportChunkSizePolicy(
+			@Value(CommonConstants.BATCH_SIZE_JOB_PARAM_EXPRESSION) Long batchSize) {
+		return chunkSizing.policy(Math.toIntExact(batchSize));
+	}
+
+	@Bean
+	@JobScope
+	public Step doctrixReportJobStep() {
+		return StepMetricsListener.register(stepBuilderFactory.get("DoctrixReportJobStep")
+				.<List<String>, List<String>>chunk(doctrixReportChunkSizePolicy(null))
+				.reader(doctrixReportRowReader(null, null, null, null))
+				.writer(doctrixReportWriter(null, null, null, "")),
+				doctrixReportStepMetricsListener()).listener((StepExecutionListener) doctrixReportChunkSizePolicy(null))
+				.listener((StepExecutionListener) doctrixReportWriter(null, null, null, "")).build();
+	}
+
+	@Bean
+	@Qualifier("DoctrixReportJob")
+	public Job doctrixReportJob(JobCompletionNotificationListener listener) {
+		return jobBuilderFactory.get("DoctrixReportJob").incrementer(new RunIdIncrementer()).listener(listener)
+				.start(doctrixReportJobStep()).build();
+	}
+
+	private static LocalDate parseDate(String date) {
+		return LocalDate.parse(date, DateTimeFormatter.ofPattern(CommonConstants.DATE_FORMAT_WITH_SLASH_SEP));
+	}
+
+}
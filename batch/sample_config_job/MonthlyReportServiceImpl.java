@@ -2,31 +2,36 @@ package com.synergensolutions.sbsservice.reports.service.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import com.synergensolutions.sbsservice.clients.dto.ClientOutputDTO;
 import com.synergensolutions.sbsservice.clients.service.ClientService;
+import com.synergensolutions.sbsservice.common.batch.launch.ReportJobRegistry;
+import com.synergensolutions.sbsservice.common.batch.launch.ReportLaunchPriority;
+import com.synergensolutions.sbsservice.common.batch.launch.ReportLaunchScheduler;
+import com.synergensolutions.sbsservice.common.batch.launch.ReportResultCache;
+import com.synergensolutions.sbsservice.common.batch.reader.ReportRowSource;
 import com.synergensolutions.sbsservice.reports.factory.AbstractMonthlyReportFactory;
 import com.synergensolutions.sbsservice.reports.model.enums.ASPReportType;
 import com.synergensolutions.sbsservice.reports.utils.CommonConstants;
 import com.synergensolutions.sbsservice.statements.utils.FileNameUtils;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.JobParametersInvalidException;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.synergensolutions.sbsservice.common.aws.s3.S3Wrapper;
 import com.synergensolutions.sbsservice.common.util.FileUtils;
 import com.synergensolutions.sbsservice.messages.notifications.model.Notification;
@@ -38,6 +43,7 @@ import com.synergensolutions.sbsservice.reports.factory.impl.DoctrixPaymentRepor
 import com.synergensolutions.sbsservice.reports.model.DownloadReportEvent;
 import com.synergensolutions.sbsservice.reports.service.DownloadReportEventService;
 import com.synergensolutions.sbsservice.reports.service.MonthlyReportService;
+import com.synergensolutions.sbsservice.reports.writer.ReportOutputFormat;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -46,29 +52,40 @@ import lombok.extern.slf4j.Slf4j;
 public class MonthlyReportServiceImpl implements MonthlyReportService {
 
 	private static final String TEMPLATE_EXTENSION = ".xls";
-	private static final String FILE_EXTENSION_CSV = ".csv";
+	// default bean names of the factories, looked up by the Doctrix report job when they implement ReportRowSource
+	private static final String DOCTRIX_CLIENT_AR_REPORT_FACTORY = "doctrixClientARReportFactory";
+	private static final String DOCTRIX_PAYMENT_REPORT_FACTORY = "doctrixPaymentReportFactory";
+	// resolved through ReportJobRegistry when they are first launched
+	private static final String FEE_SCHEDULE_REPORT_JOB = "FeeScheduleReportJob";
+	private static final String MONTHLY_AR_REPORT_JOB = "MonthlyARReportJob";
+	private static final String INVOICE_REPORT_JOB = "InvoiceReportJob";
+	private static final String INVOICE_ITEM_REPORT_JOB = "InvoiceItemReportJob";
+	private static final String WRITE_OFF_REPORT_JOB = "WriteOffReportJob";
+	private static final String CLINIC_PAYMENT_REPORT_JOB = "ClinicPaymentReportJob";
+	private static final String CLIENT_REPORT_JOB = "ClientReportJob";
+	private static final String TOP_UP_REQUEST_REPORT_JOB = "TopUpRequestReportJob";
+	private static final String WALLET_REPORT_JOB = "WalletReportJob";
+	private static final String MONTHLY_ASP_REPORT_JOB = "MonthlyASPReportJob";
+	private static final String ADJUSTMENT_WRITE_OFF_REPORT_JOB = "AdjustmentWriteOffReportJob";
+	private static final String DOCTRIX_REPORT_JOB = "DoctrixReportJob";
 	private final DoctrixClientARReportFactory doctrixClientARReportFactory;
 	private final DoctrixPaymentReportFactory doctrixPaymentReportFactory;
 	private final DownloadReportEventService downloadReportEventService;
 	private final ClientService clientService;
+	private final AmazonS3 amazonS3;
+	private final String bucket;
 	private final S3Wrapper s3Wrapper;
 	private final NotificationSender notificationSender;
 	private final String s3ReportsPath;
 	private final int batchSize;
+	// per job name, jobs without an entry and jobs whose writer ignores the job parameter write plain CSV
+	private final Map<String, String> outputFormats;
+	private final File reportOutputDir;
 
-	private final Job feeScheduleReportJob;
-	private final Job monthlyArReportJob;
-	private final Job invoiceReportJob;
-	private final Job invoiceItemReportJob;
-	private final Job writeOffReportJob;
-	private final Job clinicPaymentReportJob;
-	private final Job clientReportJob;
-	private final Job topUpRequestReportJob;
-	private final Job walletReportJob;
-	private final Job monthlyASPReportJob;
-	private final Job adjustmentWriteOffReportJob;
+	private final ReportJobRegistry reportJobRegistry;
 
-	private final JobLauncher jobLauncher;
+	private final ReportLaunchScheduler reportLaunchScheduler;
+	private final ReportResultCache reportResultCache;
 
 	public MonthlyReportServiceImpl(final DoctrixClientARReportFactory doctrixClientARReportFactory,
 			final DoctrixPaymentReportFactory doctrixPaymentReportFactory,
@@ -76,18 +93,10 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			final AmazonS3 amazonS3, @Value("${cloud.aws.s3.bucket}") final String bucket,
 			final NotificationSender notificationSender, @Value("${s3.bucket.reports.path}") final String s3ReportsPath,
 			@Value("${report.batch_size}") final int batchSize,
-			final @Qualifier(value = "FeeScheduleReportJob") Job feeScheduleReportJob,
-			final @Qualifier(value = "MonthlyARReportJob") Job monthlyArReportJob,
-			final @Qualifier(value = "InvoiceReportJob") Job invoiceReportJob,
-			final @Qualifier(value = "InvoiceItemReportJob") Job invoiceItemReportJob,
-			final @Qualifier(value = "WriteOffReportJob") Job writeOffReportJob,
-			final @Qualifier(value = "ClinicPaymentReportJob") Job clinicPaymentReportJob,
-			final @Qualifier(value = "MonthlyASPReportJob") Job monthlyASPReportJob,
-			final @Qualifier(value = "ClientReportJob") Job clientReportJob,
-			final @Qualifier(value = "TopUpRequestReportJob") Job topUpRequestReportJob,
-			final @Qualifier(value = "WalletReportJob") Job walletReportJob,
-			final @Qualifier(value = "AdjustmentWriteOffReportJob") Job adjustmentWriteOffReportJob,
-			final JobLauncher jobLauncher) {
+			@Value("#{${report.output_formats:{:}}}") final Map<String, String> outputFormats,
+			@Value("${report.output_dir:${java.io.tmpdir}/reports}") final String reportOutputDir,
+			final ReportJobRegistry reportJobRegistry, final ReportLaunchScheduler reportLaunchScheduler,
+			final ReportResultCache reportResultCache) {
 		super();
 		this.doctrixClientARReportFactory = doctrixClientARReportFactory;
 		this.doctrixPaymentReportFactory = doctrixPaymentReportFactory;
@@ -95,24 +104,20 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 		this.clientService = clientService;
 		this.notificationSender = notificationSender;
 		this.s3ReportsPath = s3ReportsPath;
-		this.feeScheduleReportJob = feeScheduleReportJob;
-		this.monthlyArReportJob = monthlyArReportJob;
-		this.invoiceReportJob = invoiceReportJob;
-		this.invoiceItemReportJob = invoiceItemReportJob;
-		this.writeOffReportJob = writeOffReportJob;
-		this.clinicPaymentReportJob = clinicPaymentReportJob;
-		this.clientReportJob = clientReportJob;
-		this.topUpRequestReportJob = topUpRequestReportJob;
-		this.walletReportJob = walletReportJob;
-		this.monthlyASPReportJob = monthlyASPReportJob;
-		this.adjustmentWriteOffReportJob = adjustmentWriteOffReportJob;
-		this.jobLauncher = jobLauncher;
+		this.reportJobRegistry = reportJobRegistry;
+		this.reportLaunchScheduler = reportLaunchScheduler;
+		this.reportResultCache = reportResultCache;
+		this.amazonS3 = amazonS3;
+		this.bucket = bucket;
 		this.s3Wrapper = new S3Wrapper(amazonS3, bucket);
 		this.batchSize = batchSize;
+		this.outputFormats = outputFormats == null ? Collections.emptyMap() : Map.copyOf(outputFormats);
+		// a misspelt format fails the startup instead of the first launch of its report
+		this.outputFormats.values().forEach(ReportOutputFormat::fromJobParameter);
+		this.reportOutputDir = new File(reportOutputDir).getAbsoluteFile();
 	}
 
 	@Override
-	@Async
 	public void generateMonthlyInvoiceReport(LocalDate from, LocalDate to, boolean useInvoiceDate, long clientId,
 			DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
@@ -121,15 +126,14 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildInvoiceReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl, from, to,
 					useInvoiceDate, clientId);
-			jobLauncher.run(invoiceReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(INVOICE_REPORT_JOB, jobParametersBuilder.toJobParameters(),
+					clientId > 0 ? ReportLaunchPriority.HIGH : ReportLaunchPriority.NORMAL, downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Validate Invoice Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateMonthlyInvoiceItemReport(LocalDate from, LocalDate to, boolean useInvoiceDate, long clientId,
 			DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
@@ -138,15 +142,14 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildInvoiceReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl, from, to,
 					useInvoiceDate, clientId);
-			jobLauncher.run(invoiceItemReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(INVOICE_ITEM_REPORT_JOB, jobParametersBuilder.toJobParameters(),
+					clientId > 0 ? ReportLaunchPriority.HIGH : ReportLaunchPriority.NORMAL, downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Validate Invoice Item Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateMonthlyARReport(LocalDate to, DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
 
@@ -156,15 +159,14 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
 			jobParametersBuilder.addString(CommonConstants.TO_DATE_JOB_PARAM_NAME,
 					to.format(DateTimeFormatter.ofPattern(CommonConstants.DATE_FORMAT_WITH_SLASH_SEP)));
-			jobLauncher.run(monthlyArReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(MONTHLY_AR_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.LOW,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Monthly AR Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateMonthlyWriteOffReport(LocalDate from, LocalDate to, DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
 		try {
@@ -172,15 +174,14 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
 			buildToDateAndFromDateJobParams(jobParametersBuilder, from, to);
-			jobLauncher.run(writeOffReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(WRITE_OFF_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Write off Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateMonthlyClinicPaymentReport(LocalDate from, LocalDate to,
 			DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
@@ -189,39 +190,38 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
 			buildToDateAndFromDateJobParams(jobParametersBuilder, from, to);
-			jobLauncher.run(clinicPaymentReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(CLINIC_PAYMENT_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Clinic payment Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateFeeScheduleReport(DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
 		try {
 			String outputFileUrl = FileUtils.createTempFile(currentTimeMillis + "_out", ".csv").getAbsolutePath();
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
-			jobLauncher.run(feeScheduleReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(FEE_SCHEDULE_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Fee Schedule Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateClientReport(DownloadReportEvent downloadReportEvent) {
-		long currentTimeMillis = System.currentTimeMillis();
 		try {
-			String outputFileUrl = FileUtils.createTempFile(currentTimeMillis + "_out", ".csv").getAbsolutePath();
+			ReportOutputFormat outputFormat = outputFormat(CLIENT_REPORT_JOB);
+			String outputFileUrl = reportOutputFile(downloadReportEvent, outputFormat.getExtension());
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
-			jobLauncher.run(clientReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			jobParametersBuilder.addString(ReportOutputFormat.JOB_PARAM_NAME, outputFormat.name());
+			launch(CLIENT_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.HIGH,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Client Report Job : " + e.getMessage());
 		}
 	}
@@ -229,32 +229,32 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 	@Override
 	@Async
 	public void generateDoctrixClientARReport(LocalDate from, LocalDate to, DownloadReportEvent downloadReportEvent) {
-		generateReport(this.doctrixClientARReportFactory, from, to, null, downloadReportEvent);
+		generateReport(this.doctrixClientARReportFactory, DOCTRIX_CLIENT_AR_REPORT_FACTORY, from, to, null,
+				downloadReportEvent);
 	}
 
 	@Override
 	@Async
 	public void generateDoctrixPaymentReport(LocalDate from, LocalDate to, DownloadReportEvent downloadReportEvent) {
-		generateReport(this.doctrixPaymentReportFactory, from, to, null, downloadReportEvent);
+		generateReport(this.doctrixPaymentReportFactory, DOCTRIX_PAYMENT_REPORT_FACTORY, from, to, null,
+				downloadReportEvent);
 	}
 
 	@Override
-	@Async
 	public void generateClientWalletReport(DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
 		try {
 			String outputFileUrl = FileUtils.createTempFile(currentTimeMillis + "_out", ".csv").getAbsolutePath();
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
-			jobLauncher.run(walletReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(WALLET_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Wallet Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateTopUpRequestReport(LocalDate from, LocalDate to, DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
 		try {
@@ -262,15 +262,14 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
 			buildToDateAndFromDateJobParams(jobParametersBuilder, from, to);
-			jobLauncher.run(topUpRequestReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(TOP_UP_REQUEST_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Top Up Request Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateASPReport(LocalDate from, LocalDate to, ASPReportType type,
 			DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
@@ -280,15 +279,14 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
 			buildToDateAndFromDateJobParams(jobParametersBuilder, from, to);
 			jobParametersBuilder.addString(CommonConstants.ASP_REPORT_TYPE_JOB_PARAM_NAME, type.toString());
-			jobLauncher.run(monthlyASPReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(MONTHLY_ASP_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Monthly ASP Report Job : " + e.getMessage());
 		}
 	}
 
 	@Override
-	@Async
 	public void generateAdjustmentWriteOffReport(LocalDate from, LocalDate to,
 			DownloadReportEvent downloadReportEvent) {
 		long currentTimeMillis = System.currentTimeMillis();
@@ -297,9 +295,9 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
 			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
 			buildToDateAndFromDateJobParams(jobParametersBuilder, from, to);
-			jobLauncher.run(adjustmentWriteOffReportJob, jobParametersBuilder.toJobParameters()).getExitStatus();
-		} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-				| JobParametersInvalidException | IOException e) {
+			launch(ADJUSTMENT_WRITE_OFF_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
 			log.error("Failed to execute Adjustment Write off Report Job : " + e.getMessage());
 		}
 	}
@@ -322,13 +320,66 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 		return this.createDownloadReportEvent(fileName, owner);
 	}
 
-	private void generateReport(AbstractMonthlyReportFactory factory, LocalDate from, LocalDate to,
-			Map<String, Object> properties, DownloadReportEvent downloadReportEvent) {
+	private void launch(String jobName, JobParameters jobParameters, ReportLaunchPriority priority,
+			DownloadReportEvent downloadReportEvent) {
+		Job job = reportJobRegistry.getJob(jobName);
+		String cacheKey = ReportResultCache.keyOf(job.getName(), jobParameters);
+		if (!reportResultCache.join(cacheKey, s3Key -> notifyUser(s3Key, downloadReportEvent),
+				() -> notifyFailure(downloadReportEvent))) {
+			// served by an identical run, the reserved output file is not needed. Event outputs are never reserved
+			// up front and may belong to the run that is serving this request
+			File outputFile = new File(jobParameters.getString(CommonConstants.OUTPUT_CSV_PATH_JOB_PARAM_NAME));
+			if (!reportOutputDir.equals(outputFile.getParentFile())) {
+				outputFile.delete();
+			}
+			return;
+		}
+		int position;
+		try {
+			position = reportLaunchScheduler.submit(job, jobParameters, priority);
+		} catch (TaskRejectedException e) {
+			reportResultCache.fail(cacheKey);
+			throw e;
+		}
+		if (position > 0) {
+			notifyQueued(downloadReportEvent, position);
+		}
+	}
+
+	// one output path per report event, the job parameters of an event are stable so generating the same event
+	// again restarts its failed run on the same file
+	private String reportOutputFile(DownloadReportEvent downloadReportEvent, String extension) throws IOException {
+		Files.createDirectories(reportOutputDir.toPath());
+		return new File(reportOutputDir, "report_" + downloadReportEvent.getId() + extension).getAbsolutePath();
+	}
+
+	private void generateReport(AbstractMonthlyReportFactory factory, String factoryBeanName, LocalDate from,
+			LocalDate to, Map<String, Object> properties, DownloadReportEvent downloadReportEvent) {
+		if (factory instanceof ReportRowSource) {
+			generateStreamingReport(factoryBeanName, from, to, downloadReportEvent);
+			return;
+		}
 		byte[] data = factory.generate(from, to, properties);
 		String s3key = uploadReportToS3(data);
 		this.notifyUser(s3key, downloadReportEvent);
 	}
 
+	// the rows are written chunk by chunk by the Doctrix report job instead of being generated as one byte[]
+	private void generateStreamingReport(String rowSourceName, LocalDate from, LocalDate to,
+			DownloadReportEvent downloadReportEvent) {
+		try {
+			String outputFileUrl = reportOutputFile(downloadReportEvent, ReportOutputFormat.XLSX.getExtension());
+			JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+			buildBasicReportJobParams(jobParametersBuilder, downloadReportEvent, outputFileUrl);
+			buildToDateAndFromDateJobParams(jobParametersBuilder, from, to);
+			jobParametersBuilder.addString(ReportRowSource.JOB_PARAM_NAME, rowSourceName);
+			launch(DOCTRIX_REPORT_JOB, jobParametersBuilder.toJobParameters(), ReportLaunchPriority.NORMAL,
+					downloadReportEvent);
+		} catch (IOException e) {
+			log.error("Failed to execute Doctrix Report Job : " + e.getMessage());
+		}
+	}
+
 	@Override
 	public void notifyUser(String fileUrl, DownloadReportEvent downloadReportEvent) {
 		this.downloadReportEventService.updateDownloadReportEvent(downloadReportEvent.getId(), fileUrl);
@@ -339,10 +390,34 @@ public class MonthlyReportServiceImpl implements MonthlyReportService {
 				.message(downloadReportEvent.getFileName() + " is generated").build());
 	}
 
+	// the position at submit time, later requests of a higher priority can still move ahead of it
+	private void notifyQueued(DownloadReportEvent downloadReportEvent, int position) {
+		this.notificationSender.send(Notification.builder().title("Reports")
+				.targetUsers(Set.of(downloadReportEvent.getOwner())).topics(Set.of(Topic.REPORT_GENERATION))
+				.message(downloadReportEvent.getFileName() + " is queued at position " + position).build());
+	}
+
+	// the event keeps its empty file url, the user is told that the report has to be requested again
+	private void notifyFailure(DownloadReportEvent downloadReportEvent) {
+		this.notificationSender.send(Notification.builder().title("Reports")
+				.targetUsers(Set.of(downloadReportEvent.getOwner())).topics(Set.of(Topic.REPORT_GENERATION))
+				.message(downloadReportEvent.getFileName() + " could not be generated").build());
+	}
+
+	private ReportOutputFormat outputFormat(String jobName) {
+		return ReportOutputFormat.fromJobParameter(outputFormats.get(jobName));
+	}
+
+	// the key keeps the extension of the written format and the object its content type, so a compressed report
+	// is not served as plain CSV
 	@Override
 	public String uploadResults(String fileUrl, String fileName) {
-		String s3key = fileName + FILE_EXTENSION_CSV;
-		s3Wrapper.upload(new File(fileUrl), s3ReportsPath + s3key);
+		ReportOutputFormat outputFormat = ReportOutputFormat.fromFileName(fileUrl);
+		String s3key = fileName + outputFormat.getExtension();
+		ObjectMetadata objectMetadata = new ObjectMetadata();
+		objectMetadata.setContentType(outputFormat.getContentType());
+		amazonS3.putObject(new PutObjectRequest(bucket, s3ReportsPath + s3key, new File(fileUrl))
+				.withMetadata(objectMetadata));
 		return s3key;
 	}
 
@@ -0,0 +1,429 @@
+package com.synergensolutions.sbsservice.common.batch.utils;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.batch.item.file.transform.FieldSet;
+
+// FieldSet view over the char buffer of CSVOffsetLineTokenizer, it is reset for every line so it must not be kept
+// after the next call to tokenize, the typed readers parse straight from the field offsets. The rules are those of
+// DefaultFieldSet with its default US number format: booleans compare case sensitively, readInt, readLong,
+// readFloat, readDouble and readBigDecimal drop the ',' grouping separator while readByte, readShort and the readers
+// with a default value do not. Unlike the lenient NumberFormat of DefaultFieldSet, an integer field with trailing
+// characters or a fraction ("12abc", "1.5") is rejected instead of being cut at the first of them
+public class CSVFlyweightFieldSet implements FieldSet {
+
+	private static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd";
+	private static final String TRUE_VALUE = "true";
+	private static final char GROUPING_SEPARATOR = ',';
+
+	private final String[] names;
+	private final Map<String, Integer> indexOfName;
+
+	private char[] chars;
+	private int[] starts;
+	private int[] ends;
+	private int fieldCount;
+
+	CSVFlyweightFieldSet(String[] names) {
+		super();
+		this.names = names == null ? null : names.clone();
+		this.indexOfName = new HashMap<>();
+		if (names != null) {
+			for (int i = 0; i < names.length; i++) {
+				indexOfName.put(names[i], i);
+			}
+		}
+	}
+
+	void reset(char[] chars, int[] starts, int[] ends, int fieldCount) {
+		this.chars = chars;
+		this.starts = starts;
+		this.ends = ends;
+		this.fieldCount = fieldCount;
+	}
+
+	@Override
+	public String[] getNames() {
+		if (names == null) {
+			throw new IllegalStateException("Field names are not known");
+		}
+		return names.clone();
+	}
+
+	@Override
+	public boolean hasNames() {
+		return names != null;
+	}
+
+	@Override
+	public String[] getValues() {
+		String[] values = new String[fieldCount];
+		for (int i = 0; i < fieldCount; i++) {
+			values[i] = readRawString(i);
+		}
+		return values;
+	}
+
+	@Override
+	public String readString(int index) {
+		int start = trimmedStart(index);
+		return new String(chars, start, trimmedEnd(index, start) - start);
+	}
+
+	@Override
+	public String readString(String name) {
+		return readString(indexOf(name));
+	}
+
+	@Override
+	public String readRawString(int index) {
+		checkIndex(index);
+		return new String(chars, starts[index], ends[index] - starts[index]);
+	}
+
+	@Override
+	public String readRawString(String name) {
+		return readRawString(indexOf(name));
+	}
+
+	@Override
+	public boolean readBoolean(int index) {
+		return readBoolean(index, TRUE_VALUE);
+	}
+
+	@Override
+	public boolean readBoolean(String name) {
+		return readBoolean(indexOf(name));
+	}
+
+	@Override
+	public boolean readBoolean(int index, String trueValue) {
+		int start = trimmedStart(index);
+		int length = trimmedEnd(index, start) - start;
+		if (length != trueValue.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (chars[start + i] != trueValue.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean readBoolean(String name, String trueValue) {
+		return readBoolean(indexOf(name), trueValue);
+	}
+
+	@Override
+	public char readChar(int index) {
+		int start = trimmedStart(index);
+		if (trimmedEnd(index, start) - start != 1) {
+			throw new IllegalArgumentException("Cannot convert field value '" + readString(index) + "' to char.");
+		}
+		return chars[start];
+	}
+
+	@Override
+	public char readChar(String name) {
+		return readChar(indexOf(name));
+	}
+
+	@Override
+	public byte readByte(int index) {
+		return (byte) parseLong(index, Byte.MIN_VALUE, Byte.MAX_VALUE, false);
+	}
+
+	@Override
+	public byte readByte(String name) {
+		return readByte(indexOf(name));
+	}
+
+	@Override
+	public short readShort(int index) {
+		return (short) parseLong(index, Short.MIN_VALUE, Short.MAX_VALUE, false);
+	}
+
+	@Override
+	public short readShort(String name) {
+		return readShort(indexOf(name));
+	}
+
+	@Override
+	public int readInt(int index) {
+		return (int) parseLong(index, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+	}
+
+	@Override
+	public int readInt(String name) {
+		return readInt(indexOf(name));
+	}
+
+	@Override
+	public int readInt(int index, int defaultValue) {
+		return isBlank(index) ? defaultValue : (int) parseLong(index, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
+	}
+
+	@Override
+	public int readInt(String name, int defaultValue) {
+		return readInt(indexOf(name), defaultValue);
+	}
+
+	@Override
+	public long readLong(int index) {
+		return parseLong(index, Long.MIN_VALUE, Long.MAX_VALUE, true);
+	}
+
+	@Override
+	public long readLong(String name) {
+		return readLong(indexOf(name));
+	}
+
+	@Override
+	public long readLong(int index, long defaultValue) {
+		return isBlank(index) ? defaultValue : parseLong(index, Long.MIN_VALUE, Long.MAX_VALUE, false);
+	}
+
+	@Override
+	public long readLong(String name, long defaultValue) {
+		return readLong(indexOf(name), defaultValue);
+	}
+
+	@Override
+	public float readFloat(int index) {
+		return Float.parseFloat(withoutGrouping(readString(index)));
+	}
+
+	@Override
+	public float readFloat(String name) {
+		return readFloat(indexOf(name));
+	}
+
+	@Override
+	public double readDouble(int index) {
+		return Double.parseDouble(withoutGrouping(readString(index)));
+	}
+
+	@Override
+	public double readDouble(String name) {
+		return readDouble(indexOf(name));
+	}
+
+	@Override
+	public BigDecimal readBigDecimal(int index) {
+		return readBigDecimal(index, null);
+	}
+
+	@Override
+	public BigDecimal readBigDecimal(String name) {
+		return readBigDecimal(indexOf(name));
+	}
+
+	@Override
+	public BigDecimal readBigDecimal(int index, BigDecimal defaultValue) {
+		if (isBlank(index)) {
+			return defaultValue;
+		}
+		int start = trimmedStart(index);
+		int end = trimmedEnd(index, start);
+		for (int i = start; i < end; i++) {
+			if (chars[i] == GROUPING_SEPARATOR) {
+				return new BigDecimal(withoutGrouping(readString(index)));
+			}
+		}
+		return new BigDecimal(chars, start, end - start);
+	}
+
+	@Override
+	public BigDecimal readBigDecimal(String name, BigDecimal defaultValue) {
+		return readBigDecimal(indexOf(name), defaultValue);
+	}
+
+	@Override
+	public Date readDate(int index) {
+		int start = trimmedStart(index);
+		int end = trimmedEnd(index, start);
+		// yyyy-MM-dd is parsed from the chars, any other layout goes through the pattern based reader
+		if (end - start == DEFAULT_DATE_PATTERN.length() && chars[start + 4] == '-' && chars[start + 7] == '-') {
+			GregorianCalendar calendar = new GregorianCalendar(digits(index, start, start + 4),
+					digits(index, start + 5, start + 7) - 1, digits(index, start + 8, start + 10));
+			calendar.setLenient(false);
+			try {
+				return calendar.getTime();
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(unparseableDate(index, DEFAULT_DATE_PATTERN), e);
+			}
+		}
+		return readDate(index, DEFAULT_DATE_PATTERN);
+	}
+
+	@Override
+	public Date readDate(String name) {
+		return readDate(indexOf(name));
+	}
+
+	@Override
+	public Date readDate(int index, Date defaultValue) {
+		return isBlank(index) ? defaultValue : readDate(index);
+	}
+
+	@Override
+	public Date readDate(String name, Date defaultValue) {
+		return readDate(indexOf(name), defaultValue);
+	}
+
+	@Override
+	public Date readDate(int index, String pattern) {
+		SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+		dateFormat.setLenient(false);
+		try {
+			return dateFormat.parse(readString(index));
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(unparseableDate(index, pattern), e);
+		}
+	}
+
+	@Override
+	public Date readDate(String name, String pattern) {
+		return readDate(indexOf(name), pattern);
+	}
+
+	@Override
+	public Date readDate(int index, String pattern, Date defaultValue) {
+		return isBlank(index) ? defaultValue : readDate(index, pattern);
+	}
+
+	@Override
+	public Date readDate(String name, String pattern, Date defaultValue) {
+		return readDate(indexOf(name), pattern, defaultValue);
+	}
+
+	@Override
+	public int getFieldCount() {
+		return fieldCount;
+	}
+
+	@Override
+	public Properties getProperties() {
+		if (names == null) {
+			throw new IllegalStateException("Cannot create properties without meta data");
+		}
+		Properties properties = new Properties();
+		for (int i = 0; i < Math.min(names.length, fieldCount); i++) {
+			properties.setProperty(names[i], readRawString(i));
+		}
+		return properties;
+	}
+
+	@Override
+	public String toString() {
+		return names == null ? Arrays.toString(getValues()) : getProperties().toString();
+	}
+
+	private int indexOf(String name) {
+		if (names == null) {
+			throw new IllegalArgumentException("Cannot access columns by name without meta data");
+		}
+		Integer index = indexOfName.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("Cannot access column [" + name + "] from " + Arrays.toString(names));
+		}
+		return index;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= fieldCount) {
+			throw new IndexOutOfBoundsException("There is no field at index " + index);
+		}
+	}
+
+	private int trimmedStart(int index) {
+		checkIndex(index);
+		int start = starts[index];
+		while (start < ends[index] && Character.isWhitespace(chars[start])) {
+			start++;
+		}
+		return start;
+	}
+
+	private int trimmedEnd(int index, int trimmedStart) {
+		int end = ends[index];
+		while (end > trimmedStart && Character.isWhitespace(chars[end - 1])) {
+			end--;
+		}
+		return end;
+	}
+
+	private boolean isBlank(int index) {
+		int start = trimmedStart(index);
+		return trimmedEnd(index, start) == start;
+	}
+
+	private long parseLong(int index, long min, long max, boolean grouped) {
+		int start = trimmedStart(index);
+		int end = trimmedEnd(index, start);
+		boolean negative = start < end && chars[start] == '-';
+		int digitsStart = start < end && (chars[start] == '-' || chars[start] == '+') ? start + 1 : start;
+		// accumulated negatively so Long.MIN_VALUE does not overflow
+		long value = 0;
+		int digitCount = 0;
+		for (int i = digitsStart; i < end; i++) {
+			if (grouped && chars[i] == GROUPING_SEPARATOR) {
+				continue;
+			}
+			digitCount++;
+			int digit = Character.digit(chars[i], 10);
+			if (digit < 0 || value < (Long.MIN_VALUE + digit) / 10) {
+				throw numberFormatException(index);
+			}
+			value = value * 10 - digit;
+		}
+		if (digitCount == 0) {
+			throw numberFormatException(index);
+		}
+		if (!negative) {
+			if (value == Long.MIN_VALUE) {
+				throw numberFormatException(index);
+			}
+			value = -value;
+		}
+		if (value < min || value > max) {
+			throw numberFormatException(index);
+		}
+		return value;
+	}
+
+	private static String withoutGrouping(String value) {
+		return value.indexOf(GROUPING_SEPARATOR) < 0 ? value : value.replace(String.valueOf(GROUPING_SEPARATOR), "");
+	}
+
+	private int digits(int index, int start, int end) {
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = Character.digit(chars[i], 10);
+			if (digit < 0) {
+				throw new IllegalArgumentException(unparseableDate(index, DEFAULT_DATE_PATTERN));
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private NumberFormatException numberFormatException(int index) {
+		return new NumberFormatException("For input string: \"" + readString(index) + "\"");
+	}
+
+	private String unparseableDate(int index, String pattern) {
+		return "Unparseable date: \"" + readString(index) + "\", format: [" + pattern + "]";
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.synergensolutions.sbsservice.common.batch.utils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.batch.item.file.transform.LineAggregator;
+
+// replaces BeanWrapperFieldExtractor + DelimitedLineAggregator, getters are resolved once per item type and
+// the fields are appended to one reused StringBuilder, so instances must not be shared between threads
+public class CSVLineAggregator<T> implements LineAggregator<T> {
+
+	private static final Map<List<Object>, MethodHandle[]> ACCESSORS_CACHE = new ConcurrentHashMap<>();
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final String[] fieldNames;
+	private final char delimiter;
+	private final StringBuilder line = new StringBuilder(256);
+
+	private Class<?> itemType;
+	private MethodHandle[] accessors;
+
+	public CSVLineAggregator(String[] fieldNames, char delimiter) {
+		super();
+		this.fieldNames = fieldNames.clone();
+		this.delimiter = delimiter;
+	}
+
+	@Override
+	public String aggregate(T item) {
+		MethodHandle[] itemAccessors = accessorsOf(item.getClass());
+		line.setLength(0);
+		for (int i = 0; i < itemAccessors.length; i++) {
+			if (i > 0) {
+				line.append(delimiter);
+			}
+			appendField(read(itemAccessors[i], item, i));
+		}
+		return line.toString();
+	}
+
+	private MethodHandle[] accessorsOf(Class<?> type) {
+		if (type != itemType) {
+			accessors = ACCESSORS_CACHE.computeIfAbsent(Arrays.asList(type, Arrays.asList(fieldNames)),
+					key -> resolveAccessors(type));
+			itemType = type;
+		}
+		return accessors;
+	}
+
+	private MethodHandle[] resolveAccessors(Class<?> type) {
+		try {
+			Map<String, PropertyDescriptor> properties = new HashMap<>();
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+				if (descriptor.getReadMethod() != null) {
+					properties.put(descriptor.getName(), descriptor);
+				}
+			}
+
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			MethodHandle[] handles = new MethodHandle[fieldNames.length];
+			for (int i = 0; i < fieldNames.length; i++) {
+				PropertyDescriptor descriptor = properties.get(fieldNames[i]);
+				if (descriptor == null) {
+					throw new IllegalArgumentException(
+							"No readable property " + fieldNames[i] + " on " + type.getName());
+				}
+				handles[i] = lookup.unreflect(descriptor.getReadMethod()).asType(ACCESSOR_TYPE);
+			}
+			return handles;
+		} catch (IntrospectionException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Failed to resolve CSV fields of " + type.getName(), e);
+		}
+	}
+
+	private Object read(MethodHandle accessor, T item, int fieldIndex) {
+		try {
+			return accessor.invokeExact((Object) item);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failed to read CSV field " + fieldNames[fieldIndex], e);
+		}
+	}
+
+	// quotes only values that contain the delimiter, a quote or a line break, other values are written as is
+	private void appendField(Object value) {
+		String field = String.valueOf(value);
+		if (!needsQuoting(field)) {
+			line.append(field);
+			return;
+		}
+		line.append('"');
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == '"') {
+				line.append('"');
+			}
+			line.append(c);
+		}
+		line.append('"');
+	}
+
+	private boolean needsQuoting(String field) {
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.synergensolutions.sbsservice.common.batch.utils;
+
+import java.util.Arrays;
+
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.batch.item.file.transform.LineTokenizer;
+
+// allocation free alternative to CSVDelimitedLineTokenizer, the line is copied into a reused char buffer (quotes
+// removed in place) and the returned CSVFlyweightFieldSet only holds field offsets into it, one instance per thread
+public class CSVOffsetLineTokenizer implements LineTokenizer {
+
+	private static final char DEFAULT_DELIMITER = ',';
+	private static final char QUOTE = '"';
+
+	private final String[] csvHeaders;
+	private final char delimiter;
+	private final CSVFlyweightFieldSet fieldSet;
+
+	private char[] chars = new char[256];
+	private int[] starts = new int[16];
+	private int[] ends = new int[16];
+
+	public CSVOffsetLineTokenizer(String[] csvHeaders) {
+		this(csvHeaders, DEFAULT_DELIMITER);
+	}
+
+	public CSVOffsetLineTokenizer(String[] csvHeaders, char delimiter) {
+		super();
+		this.csvHeaders = csvHeaders.clone();
+		this.delimiter = delimiter;
+		this.fieldSet = new CSVFlyweightFieldSet(csvHeaders);
+	}
+
+	@Override
+	public FieldSet tokenize(String line) {
+		String input = line == null ? "" : line;
+		int length = input.length();
+		if (chars.length < length) {
+			chars = new char[Math.max(length, chars.length * 2)];
+		}
+		input.getChars(0, length, chars, 0);
+
+		int fieldCount = 0;
+		int write = 0;
+		int fieldStart = 0;
+		boolean inQuotes = false;
+		boolean quotedField = false;
+		for (int read = 0; read < length; read++) {
+			char c = chars[read];
+			if (c == QUOTE && !inQuotes && !quotedField && write == fieldStart) {
+				inQuotes = true;
+				quotedField = true;
+			} else if (c == QUOTE && inQuotes) {
+				if (read + 1 < length && chars[read + 1] == QUOTE) {
+					chars[write++] = QUOTE;
+					read++;
+				} else {
+					inQuotes = false;
+				}
+			} else if (c == delimiter && !inQuotes) {
+				fieldCount = addField(fieldCount, fieldStart, write);
+				fieldStart = write;
+				quotedField = false;
+			} else {
+				chars[write++] = c;
+			}
+		}
+		fieldCount = addField(fieldCount, fieldStart, write);
+
+		if (fieldCount != csvHeaders.length) {
+			throw new IncorrectTokenCountException("Incorrect number of tokens found in record", csvHeaders.length,
+					fieldCount, input);
+		}
+		fieldSet.reset(chars, starts, ends, fieldCount);
+		return fieldSet;
+	}
+
+	private int addField(int fieldCount, int start, int end) {
+		if (fieldCount == starts.length) {
+			int capacity = starts.length * 2;
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+		}
+		starts[fieldCount] = start;
+		ends[fieldCount] = end;
+		return fieldCount + 1;
+	}
+
+}
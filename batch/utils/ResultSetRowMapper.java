@@ -0,0 +1,220 @@
+package com.synergensolutions.sbsservice.common.batch.utils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.jdbc.core.RowMapper;
+
+// replaces BeanPropertyRowMapper and hand written name based mappers, the column labels are matched to the setters of
+// the type once per result set (lims_id, LIMSID and limsId all map to limsId) and every row is then read by column
+// index through typed MethodHandles, so primitive columns are never boxed. Columns without a matching property are
+// ignored. The resolved columns belong to one result set, so instances must not be shared between readers
+public class ResultSetRowMapper<T> implements RowMapper<T> {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+	private final Class<T> type;
+	private final MethodHandle constructor;
+	private final Map<String, PropertyDescriptor> properties;
+
+	private ResultSet resultSet;
+	private ColumnBinder[] binders;
+
+	public ResultSetRowMapper(Class<T> type) {
+		super();
+		this.type = type;
+		try {
+			this.constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+					.asType(CONSTRUCTOR_TYPE);
+			this.properties = new HashMap<>();
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+				if (descriptor.getWriteMethod() != null) {
+					properties.put(normalize(descriptor.getName()), descriptor);
+				}
+			}
+		} catch (NoSuchMethodException | IllegalAccessException | IntrospectionException e) {
+			throw new IllegalArgumentException("Failed to resolve row mapping of " + type.getName(), e);
+		}
+	}
+
+	public static <T> ResultSetRowMapper<T> of(Class<T> type) {
+		return new ResultSetRowMapper<>(type);
+	}
+
+	@Override
+	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+		if (rs != resultSet) {
+			binders = resolveBinders(rs.getMetaData());
+			resultSet = rs;
+		}
+		try {
+			Object row = constructor.invokeExact();
+			for (ColumnBinder binder : binders) {
+				binder.bind(row, rs);
+			}
+			return type.cast(row);
+		} catch (SQLException | RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failed to map row " + rowNum + " to " + type.getName(), e);
+		}
+	}
+
+	private ColumnBinder[] resolveBinders(ResultSetMetaData metaData) throws SQLException {
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		List<ColumnBinder> resolved = new ArrayList<>();
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			PropertyDescriptor descriptor = properties.get(normalize(metaData.getColumnLabel(column)));
+			if (descriptor == null) {
+				continue;
+			}
+			Class<?> propertyType = descriptor.getPropertyType();
+			try {
+				MethodHandle setter = lookup.unreflect(descriptor.getWriteMethod())
+						.asType(MethodType.methodType(void.class, Object.class, propertyType));
+				resolved.add(binderOf(propertyType, setter, column));
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException("Failed to resolve setter of " + descriptor.getName(), e);
+			}
+		}
+		return resolved.toArray(new ColumnBinder[0]);
+	}
+
+	// primitive properties keep their default value when the column is NULL, the lambdas use statement bodies so
+	// that invokeExact is compiled with a void return type
+	private ColumnBinder binderOf(Class<?> propertyType, MethodHandle setter, int column) {
+		if (propertyType == String.class) {
+			return (row, rs) -> {
+				setter.invokeExact(row, rs.getString(column));
+			};
+		}
+		if (propertyType == int.class) {
+			return (row, rs) -> {
+				int value = rs.getInt(column);
+				if (!rs.wasNull()) {
+					setter.invokeExact(row, value);
+				}
+			};
+		}
+		if (propertyType == long.class) {
+			return (row, rs) -> {
+				long value = rs.getLong(column);
+				if (!rs.wasNull()) {
+					setter.invokeExact(row, value);
+				}
+			};
+		}
+		if (propertyType == double.class) {
+			return (row, rs) -> {
+				double value = rs.getDouble(column);
+				if (!rs.wasNull()) {
+					setter.invokeExact(row, value);
+				}
+			};
+		}
+		if (propertyType == boolean.class) {
+			return (row, rs) -> {
+				boolean value = rs.getBoolean(column);
+				if (!rs.wasNull()) {
+					setter.invokeExact(row, value);
+				}
+			};
+		}
+		if (propertyType == BigDecimal.class) {
+			return (row, rs) -> {
+				setter.invokeExact(row, rs.getBigDecimal(column));
+			};
+		}
+		if (propertyType == Integer.class) {
+			return (row, rs) -> {
+				int value = rs.getInt(column);
+				Integer boxed = rs.wasNull() ? null : value;
+				setter.invokeExact(row, boxed);
+			};
+		}
+		if (propertyType == Long.class) {
+			return (row, rs) -> {
+				long value = rs.getLong(column);
+				Long boxed = rs.wasNull() ? null : value;
+				setter.invokeExact(row, boxed);
+			};
+		}
+		if (propertyType == Double.class) {
+			return (row, rs) -> {
+				double value = rs.getDouble(column);
+				Double boxed = rs.wasNull() ? null : value;
+				setter.invokeExact(row, boxed);
+			};
+		}
+		if (propertyType == Boolean.class) {
+			return (row, rs) -> {
+				boolean value = rs.getBoolean(column);
+				Boolean boxed = rs.wasNull() ? null : value;
+				setter.invokeExact(row, boxed);
+			};
+		}
+		if (propertyType == Timestamp.class) {
+			return (row, rs) -> {
+				setter.invokeExact(row, rs.getTimestamp(column));
+			};
+		}
+		// read as a timestamp like BeanPropertyRowMapper does, a DATE column keeps its midnight time
+		if (propertyType == Date.class) {
+			return (row, rs) -> {
+				Date value = rs.getTimestamp(column);
+				setter.invokeExact(row, value);
+			};
+		}
+		// through the JDBC 4.0 getters, not every driver maps getObject to the java.time types
+		if (propertyType == LocalDate.class) {
+			return (row, rs) -> {
+				java.sql.Date value = rs.getDate(column);
+				LocalDate date = value == null ? null : value.toLocalDate();
+				setter.invokeExact(row, date);
+			};
+		}
+		if (propertyType == LocalDateTime.class) {
+			return (row, rs) -> {
+				Timestamp value = rs.getTimestamp(column);
+				LocalDateTime dateTime = value == null ? null : value.toLocalDateTime();
+				setter.invokeExact(row, dateTime);
+			};
+		}
+		if (propertyType.isPrimitive()) {
+			throw new IllegalArgumentException("Unsupported primitive column type " + propertyType.getName());
+		}
+		MethodHandle genericSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		return (row, rs) -> {
+			genericSetter.invokeExact(row, rs.getObject(column, propertyType));
+		};
+	}
+
+	private static String normalize(String name) {
+		return name.replace("_", "").toLowerCase(Locale.ROOT);
+	}
+
+	@FunctionalInterface
+	private interface ColumnBinder {
+
+		void bind(Object row, ResultSet rs) throws Throwable;
+
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.synergensolutions.sbsservice.common.batch.writer;
+
+import org.springframework.batch.integration.async.AsyncItemWriter;
+import org.springframework.batch.item.ItemWriter;
+
+// gathers the results of CSVAsyncRowProcessor in item order, drops filtered (null) items and rethrows the
+// processing exception of the first failed item before anything is handed to the delegate
+public class CSVAsyncItemWriter<T> extends AsyncItemWriter<T> {
+
+	public CSVAsyncItemWriter(ItemWriter<T> itemWriter) {
+		super();
+		setDelegate(itemWriter);
+	}
+
+}
@@ -1,15 +1,123 @@
 package com.synergensolutions.sbsservice.common.batch.writer;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.core.task.TaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 public class CSVItemCompositeWriter<T> extends CompositeItemWriter<T> {
 
+	private static final String DELEGATE_TIMER_NAME = "report.writer.delegate";
+
+	private final List<ItemWriter<? super T>> itemWriters;
+	private final TaskExecutor taskExecutor;
+	private final MeterRegistry meterRegistry;
+
 	public CSVItemCompositeWriter(List<ItemWriter<? super T>> itemWriters) {
+		this(itemWriters, null, null);
+	}
+
+	// fan-out mode, the chunk is formatted for all delegates at once so the slowest formatter sets the time spent
+	// before the writes. Only the prepare of PreparedItemStreamWriter delegates runs on the executor, every write
+	// stays on the step thread inside the chunk transaction, so file and S3 delegates keep or drop the chunk together
+	// when it commits or rolls back. Other delegates are written on the step thread as in the sequential mode
+	public CSVItemCompositeWriter(List<ItemWriter<? super T>> itemWriters, TaskExecutor taskExecutor,
+			MeterRegistry meterRegistry) {
 		super();
 		setDelegates(itemWriters);
+		this.itemWriters = new ArrayList<>(itemWriters);
+		this.taskExecutor = taskExecutor;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void write(List<? extends T> items) throws Exception {
+		if (taskExecutor == null) {
+			super.write(items);
+			return;
+		}
+
+		StepContext stepContext = StepSynchronizationManager.getContext();
+		StepExecution stepExecution = stepContext == null ? null : stepContext.getStepExecution();
+
+		long[] prepareNanos = new long[itemWriters.size()];
+		List<Future<String>> preparations = new ArrayList<>(itemWriters.size());
+		for (int i = 0; i < itemWriters.size(); i++) {
+			if (!(itemWriters.get(i) instanceof PreparedItemStreamWriter)) {
+				preparations.add(null);
+				continue;
+			}
+			PreparedItemStreamWriter<? super T> itemWriter = (PreparedItemStreamWriter<? super T>) itemWriters.get(i);
+			int index = i;
+			FutureTask<String> preparation = new FutureTask<>(() -> {
+				// step scoped delegates need the step context on the executor thread
+				if (stepExecution != null) {
+					StepSynchronizationManager.register(stepExecution);
+				}
+				long start = System.nanoTime();
+				try {
+					return itemWriter.prepare(items);
+				} finally {
+					prepareNanos[index] = System.nanoTime() - start;
+					if (stepExecution != null) {
+						StepSynchronizationManager.close();
+					}
+				}
+			});
+			taskExecutor.execute(preparation);
+			preparations.add(preparation);
+		}
+
+		// every preparation is awaited before failing, so no delegate is still formatting when the chunk is rolled back
+		List<String> preparedLines = new ArrayList<>(itemWriters.size());
+		Exception failure = null;
+		for (Future<String> preparation : preparations) {
+			try {
+				preparedLines.add(preparation == null ? null : preparation.get());
+			} catch (ExecutionException e) {
+				preparedLines.add(null);
+				if (failure == null) {
+					failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+
+		for (int i = 0; i < itemWriters.size(); i++) {
+			ItemWriter<? super T> itemWriter = itemWriters.get(i);
+			long start = System.nanoTime();
+			try {
+				if (preparations.get(i) == null) {
+					itemWriter.write(items);
+				} else {
+					((PreparedItemStreamWriter<? super T>) itemWriter).writePrepared(items, preparedLines.get(i));
+				}
+			} finally {
+				record(i, prepareNanos[i] + System.nanoTime() - start);
+			}
+		}
+	}
+
+	// tagged by the position in the delegate list, delegates of the same class stay apart
+	private void record(int delegateIndex, long elapsedNanos) {
+		if (meterRegistry != null) {
+			Timer.builder(DELEGATE_TIMER_NAME).tag("delegate", String.valueOf(delegateIndex))
+					.register(meterRegistry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+		}
 	}
 
-}
\ No newline at end of file
+}
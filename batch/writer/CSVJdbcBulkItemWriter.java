@@ -0,0 +1,145 @@
+package com.synergensolutions.sbsservice.common.batch.writer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// persists each chunk with multi-row INSERT (or upsert) statements of up to subBatchSize rows, instead of one
+// statement per row, the statements take part in the step transaction through the shared DataSource
+@Slf4j
+public class CSVJdbcBulkItemWriter<T> implements ItemWriter<T> {
+
+	// the PostgreSQL protocol sends the parameter count as a 16 bit value, so a statement takes at most 65535 binds.
+	// PgJDBC before 42.4 read it as signed and failed above 32767, the cap stays there to work with those drivers
+	private static final int MAX_BIND_PARAMETERS = 32767;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final DatabaseType databaseType;
+	private final String table;
+	private final List<String> columns;
+	private final List<String> keyColumns;
+	private final int[] keyIndexes;
+	private final Function<T, Object[]> valuesMachanism;
+	private final int subBatchSize;
+	private final Map<Integer, String> statementsByRowCount = new ConcurrentHashMap<>();
+
+	public CSVJdbcBulkItemWriter(DataSource dataSource, String table, List<String> columns,
+			Function<T, Object[]> valuesMachanism, int subBatchSize) {
+		this(dataSource, table, columns, Collections.emptyList(), valuesMachanism, subBatchSize);
+	}
+
+	// upsert mode, rows whose keyColumns already exist are updated instead of inserted
+	public CSVJdbcBulkItemWriter(DataSource dataSource, String table, List<String> columns, List<String> keyColumns,
+			Function<T, Object[]> valuesMachanism, int subBatchSize) {
+		super();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.table = table;
+		this.columns = List.copyOf(columns);
+		this.keyColumns = List.copyOf(keyColumns);
+		this.keyIndexes = keyColumns.stream().mapToInt(columns::indexOf).toArray();
+		this.valuesMachanism = valuesMachanism;
+		this.subBatchSize = Math.max(1, Math.min(subBatchSize, MAX_BIND_PARAMETERS / columns.size()));
+		try {
+			this.databaseType = DatabaseType.fromMetaData(dataSource);
+		} catch (MetaDataAccessException e) {
+			throw new IllegalStateException("Failed to detect the database type for " + table, e);
+		}
+		if (!this.keyColumns.isEmpty() && !supportsUpsert(databaseType)) {
+			throw new IllegalArgumentException("Upsert is not supported on " + databaseType);
+		}
+		if (Arrays.stream(keyIndexes).anyMatch(index -> index < 0)) {
+			throw new IllegalArgumentException("Key columns " + keyColumns + " must be part of " + columns);
+		}
+		if (!this.keyColumns.isEmpty() && updatedColumns().isEmpty()) {
+			throw new IllegalArgumentException("Upsert into " + table + " needs at least one non key column");
+		}
+	}
+
+	@Override
+	public void write(List<? extends T> items) throws Exception {
+		long start = System.nanoTime();
+		List<Object[]> rows = rowValues(items);
+		for (int from = 0; from < rows.size(); from += subBatchSize) {
+			List<Object[]> subBatch = rows.subList(from, Math.min(from + subBatchSize, rows.size()));
+			List<Object> args = new ArrayList<>(subBatch.size() * columns.size());
+			for (Object[] row : subBatch) {
+				Collections.addAll(args, row);
+			}
+			jdbcTemplate.update(statementFor(subBatch.size()), args.toArray());
+		}
+		long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+		log.debug("Wrote " + items.size() + " rows to " + table + " in " + elapsedMillis + " ms ("
+				+ items.size() * 1000 / elapsedMillis + " rows/s)");
+	}
+
+	// an upsert statement may touch every key only once (PostgreSQL fails with "ON CONFLICT DO UPDATE command
+	// cannot affect row a second time"), the last row of a key in the chunk wins as it would row by row
+	private List<Object[]> rowValues(List<? extends T> items) {
+		if (keyColumns.isEmpty()) {
+			return items.stream().map(valuesMachanism).collect(Collectors.toList());
+		}
+		Map<List<Object>, Object[]> rowsByKey = new LinkedHashMap<>();
+		for (T item : items) {
+			Object[] row = valuesMachanism.apply(item);
+			rowsByKey.put(Arrays.stream(keyIndexes).mapToObj(index -> row[index]).collect(Collectors.toList()), row);
+		}
+		return new ArrayList<>(rowsByKey.values());
+	}
+
+	private String statementFor(int rowCount) {
+		return statementsByRowCount.computeIfAbsent(rowCount, this::buildStatement);
+	}
+
+	private String buildStatement(int rowCount) {
+		String columnList = String.join(", ", columns);
+		String row = columns.stream().map(c -> "?").collect(Collectors.joining(", ", "(", ")"));
+		String rows = String.join(", ", Collections.nCopies(rowCount, row));
+
+		if (keyColumns.isEmpty()) {
+			return "INSERT INTO " + table + " (" + columnList + ") VALUES " + rows;
+		}
+		switch (databaseType) {
+		case H2:
+			return "MERGE INTO " + table + " (" + columnList + ") KEY (" + String.join(", ", keyColumns)
+					+ ") VALUES " + rows;
+		case MYSQL:
+			return "INSERT INTO " + table + " (" + columnList + ") VALUES " + rows + " ON DUPLICATE KEY UPDATE "
+					+ updatedColumns().stream().map(c -> c + " = VALUES(" + c + ")").collect(Collectors.joining(", "));
+		default:
+			return "INSERT INTO " + table + " (" + columnList + ") VALUES " + rows + " ON CONFLICT ("
+					+ String.join(", ", keyColumns) + ") DO UPDATE SET "
+					+ updatedColumns().stream().map(c -> c + " = EXCLUDED." + c).collect(Collectors.joining(", "));
+		}
+	}
+
+	private List<String> updatedColumns() {
+		return columns.stream().filter(c -> !keyColumns.contains(c)).collect(Collectors.toList());
+	}
+
+	private static boolean supportsUpsert(DatabaseType databaseType) {
+		switch (databaseType) {
+		case H2:
+		case MYSQL:
+		case POSTGRES:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.synergensolutions.sbsservice.common.batch.writer;
+
+import java.util.List;
+
+import org.springframework.batch.item.ItemStreamWriter;
+
+// a writer that formats a chunk apart from writing it. CSVItemCompositeWriter in fan-out mode prepares the chunk
+// for all its delegates at once on the executor and then writes the prepared lines one delegate after another on
+// the step thread, inside the chunk transaction. prepare must not touch the output or the restart state
+public interface PreparedItemStreamWriter<T> extends ItemStreamWriter<T> {
+
+	String prepare(List<? extends T> items) throws Exception;
+
+	void writePrepared(List<? extends T> items, String lines) throws Exception;
+
+}
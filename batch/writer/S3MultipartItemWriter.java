@@ -0,0 +1,279 @@
+package com.synergensolutions.sbsservice.common.batch.writer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.WriteFailedException;
+import org.springframework.batch.item.file.transform.LineAggregator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+// streams the aggregated lines straight into an S3 multipart upload. The upload is completed in afterStep, before
+// the step is saved, and a failure there fails the step, so the S3 key is only published for an object that exists.
+// Must also be registered as a step listener when used as a CSVItemCompositeWriter delegate. The lines of a chunk
+// are held apart until the chunk transaction commits, a rolled back chunk never reaches a part. The last part is
+// only buffered in memory, so the writer cannot be restarted and a restart fails fast instead of uploading a
+// truncated object
+@Slf4j
+public class S3MultipartItemWriter<T> implements PreparedItemStreamWriter<T>, StepExecutionListener {
+
+	public static final String S3_KEY_CONTEXT_KEY = "s3MultipartUploadKey";
+
+	private static final String UPLOAD_ID_CONTEXT_KEY = "s3MultipartUploadId";
+
+	private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+	private static final String LINE_SEPARATOR = "\n";
+
+	private final AmazonS3 amazonS3;
+	private final String bucket;
+	private final String s3Path;
+	private final String s3Key;
+	private final String contentType;
+	private final LineAggregator<T> lineAggregator;
+	private final String header;
+	private final int partSize;
+	private final int maxConcurrentParts;
+
+	private ExecutorService uploadExecutor;
+	private Semaphore inFlightParts;
+	private List<Future<PartETag>> uploadedParts;
+	private ByteArrayOutputStream partBuffer;
+	private ByteArrayOutputStream chunkBuffer;
+	private String uploadId;
+	private int partNumber;
+
+	public S3MultipartItemWriter(AmazonS3 amazonS3, String bucket, String s3Path, String s3Key, String contentType,
+			LineAggregator<T> lineAggregator, String header, int partSize, int maxConcurrentParts) {
+		super();
+		this.amazonS3 = amazonS3;
+		this.bucket = bucket;
+		this.s3Path = s3Path;
+		this.s3Key = s3Key;
+		this.contentType = contentType;
+		this.lineAggregator = lineAggregator;
+		this.header = header;
+		this.partSize = Math.max(partSize, MIN_PART_SIZE);
+		this.maxConcurrentParts = maxConcurrentParts;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (uploadId == null || stepExecution.getStatus().isUnsuccessful()) {
+			return null;
+		}
+		try {
+			complete();
+		} catch (Exception e) {
+			log.error("Failed to complete multipart upload of " + s3Path + s3Key + " : " + e.getMessage());
+			abort();
+			stepExecution.setStatus(BatchStatus.FAILED);
+			stepExecution.addFailureException(e);
+			return ExitStatus.FAILED.addExitDescription(e);
+		} finally {
+			uploadId = null;
+		}
+		stepExecution.getJobExecution().getExecutionContext().putString(S3_KEY_CONTEXT_KEY, s3Key);
+		return null;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		if (executionContext.containsKey(UPLOAD_ID_CONTEXT_KEY)) {
+			uploadId = executionContext.getString(UPLOAD_ID_CONTEXT_KEY);
+			abort();
+			uploadId = null;
+			throw new ItemStreamException("Multipart upload of " + s3Path + s3Key
+					+ " cannot be restarted, the report has to be launched again");
+		}
+
+		ObjectMetadata objectMetadata = new ObjectMetadata();
+		objectMetadata.setContentType(contentType);
+		uploadId = amazonS3.initiateMultipartUpload(
+				new InitiateMultipartUploadRequest(bucket, s3Path + s3Key).withObjectMetadata(objectMetadata))
+				.getUploadId();
+
+		uploadExecutor = Executors.newFixedThreadPool(maxConcurrentParts);
+		inFlightParts = new Semaphore(maxConcurrentParts);
+		uploadedParts = new ArrayList<>();
+		partBuffer = new ByteArrayOutputStream(partSize);
+		partNumber = 0;
+
+		if (header != null && !header.isEmpty()) {
+			append(header);
+		}
+	}
+
+	@Override
+	public void write(List<? extends T> items) throws Exception {
+		writePrepared(items, prepare(items));
+	}
+
+	@Override
+	public String prepare(List<? extends T> items) {
+		StringBuilder lines = new StringBuilder();
+		for (T item : items) {
+			lines.append(lineAggregator.aggregate(item)).append(LINE_SEPARATOR);
+		}
+		return lines.toString();
+	}
+
+	@Override
+	public void writePrepared(List<? extends T> items, String lines) throws Exception {
+		byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			partBuffer.write(bytes, 0, bytes.length);
+			uploadFullPart();
+			return;
+		}
+		if (chunkBuffer == null) {
+			chunkBuffer = new ByteArrayOutputStream(bytes.length);
+			TransactionSynchronizationManager.registerSynchronization(new ChunkSynchronization());
+		}
+		chunkBuffer.write(bytes, 0, bytes.length);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		// only marks that an upload was started, open rejects a restart from it
+		if (uploadId != null) {
+			executionContext.putString(UPLOAD_ID_CONTEXT_KEY, uploadId);
+		}
+	}
+
+	// an upload still open here was not completed by afterStep, the step failed or was stopped
+	@Override
+	public void close() throws ItemStreamException {
+		if (uploadId != null) {
+			abort();
+			uploadId = null;
+		}
+		if (uploadExecutor != null) {
+			uploadExecutor.shutdownNow();
+			uploadExecutor = null;
+		}
+	}
+
+	private void complete() throws InterruptedException, ExecutionException {
+		// S3 accepts a last part below the minimum size, and needs at least one part
+		if (partBuffer.size() > 0 || partNumber == 0) {
+			uploadPart();
+		}
+		List<PartETag> partETags = awaitParts();
+		amazonS3.completeMultipartUpload(
+				new CompleteMultipartUploadRequest(bucket, s3Path + s3Key, uploadId, partETags));
+		log.info("Completed multipart upload of " + s3Path + s3Key + " in " + partETags.size() + " parts");
+	}
+
+	private void append(String line) {
+		byte[] bytes = (line + LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+		partBuffer.write(bytes, 0, bytes.length);
+	}
+
+	private void uploadFullPart() throws InterruptedException, ExecutionException {
+		if (partBuffer.size() >= partSize) {
+			checkUploadedParts();
+			uploadPart();
+		}
+	}
+
+	private void uploadPart() throws InterruptedException {
+		byte[] bytes = partBuffer.toByteArray();
+		partBuffer.reset();
+		int currentPartNumber = ++partNumber;
+		String currentUploadId = uploadId;
+
+		// bounds both the upload concurrency and the number of part buffers held in memory
+		inFlightParts.acquire();
+		uploadedParts.add(uploadExecutor.submit(() -> {
+			try {
+				return amazonS3.uploadPart(new UploadPartRequest().withBucketName(bucket).withKey(s3Path + s3Key)
+						.withUploadId(currentUploadId).withPartNumber(currentPartNumber)
+						.withInputStream(new ByteArrayInputStream(bytes)).withPartSize(bytes.length)).getPartETag();
+			} finally {
+				inFlightParts.release();
+			}
+		}));
+	}
+
+	// fails the chunk early when a background part upload has already failed
+	private void checkUploadedParts() throws InterruptedException, ExecutionException {
+		for (Future<PartETag> uploadedPart : uploadedParts) {
+			if (uploadedPart.isDone()) {
+				uploadedPart.get();
+			}
+		}
+	}
+
+	private List<PartETag> awaitParts() throws InterruptedException, ExecutionException {
+		List<PartETag> partETags = new ArrayList<>();
+		for (Future<PartETag> uploadedPart : uploadedParts) {
+			partETags.add(uploadedPart.get());
+		}
+		return partETags.stream().sorted(Comparator.comparingInt(PartETag::getPartNumber))
+				.collect(Collectors.toList());
+	}
+
+	private void abort() {
+		try {
+			amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, s3Path + s3Key, uploadId));
+		} catch (Exception e) {
+			log.error("Failed to abort multipart upload of " + s3Path + s3Key + " : " + e.getMessage());
+		}
+	}
+
+	// moves the lines of the chunk into the part buffer just before the chunk commits, as the transactional buffer
+	// of FlatFileItemWriter does, a failed upload still rolls the chunk back
+	private class ChunkSynchronization implements TransactionSynchronization {
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			try {
+				chunkBuffer.writeTo(partBuffer);
+				chunkBuffer = null;
+				uploadFullPart();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new WriteFailedException("Interrupted while uploading a part of " + s3Path + s3Key, e);
+			} catch (Exception e) {
+				throw new WriteFailedException("Failed to upload a part of " + s3Path + s3Key, e);
+			}
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			chunkBuffer = null;
+		}
+
+	}
+
+}
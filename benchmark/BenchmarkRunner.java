@@ -0,0 +1,18 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the benchmarks matching the first argument (all of them by default) with the gc profiler for allocation rates
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(args.length > 0 ? args[0] : ".*Benchmark")
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+
+}
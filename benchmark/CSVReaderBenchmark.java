@@ -0,0 +1,81 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+import com.synergensolutions.sbsservice.common.batch.reader.CSVFileReader;
+import com.synergensolutions.sbsservice.common.batch.utils.CSVDelimitedLineTokenizer;
+import com.synergensolutions.sbsservice.common.batch.utils.CSVRowMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CSVReaderBenchmark {
+
+	@Param({ "10000", "1000000", "10000000" })
+	private long rows;
+
+	@Param({ "5", "21" })
+	private int columns;
+
+	@Param({ "8", "32" })
+	private int valueWidth;
+
+	private File csvFile;
+
+	@Setup(Level.Trial)
+	public void createFile() throws IOException {
+		csvFile = SyntheticData.csvFile(rows, columns, valueWidth);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() {
+		csvFile.delete();
+	}
+
+	@Benchmark
+	public long readFieldSets() throws Exception {
+		return readAll(new CSVFileReader<FieldSet>(csvFile,
+				new CSVRowMapper<>(new CSVDelimitedLineTokenizer(SyntheticData.fields(columns)), fieldSet -> fieldSet)));
+	}
+
+	@Benchmark
+	public long readBeans() throws Exception {
+		return readAll(new CSVFileReader<>(csvFile, new CSVRowMapper<>(
+				new CSVDelimitedLineTokenizer(SyntheticData.fields(columns)), SyntheticData.fieldSetMapper())));
+	}
+
+	private long readAll(CSVFileReader<?> reader) throws Exception {
+		long count = 0;
+		reader.open(new ExecutionContext());
+		try {
+			while (reader.read() != null) {
+				count++;
+			}
+		} finally {
+			reader.close();
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+
+import com.synergensolutions.sbsservice.common.batch.processor.CSVRowProcessor;
+import com.synergensolutions.sbsservice.common.batch.writer.CSVItemCompositeWriter;
+import com.synergensolutions.sbsservice.reports.writer.CSVFlatFileItemWriter;
+
+// one invocation is one chunk, so the sample time percentiles are the per chunk latencies (p99 included)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CSVWriterBenchmark {
+
+	@Param({ "1000" })
+	private int chunkSize;
+
+	@Param({ "5", "21" })
+	private int columns;
+
+	@Param({ "8", "32" })
+	private int valueWidth;
+
+	private List<SyntheticRow> chunk;
+	private CSVRowProcessor<SyntheticRow, SyntheticRow> processor;
+	private File outputFile;
+	private File secondOutputFile;
+	private CSVFlatFileItemWriter<SyntheticRow> writer;
+	private CSVFlatFileItemWriter<SyntheticRow> secondWriter;
+	private CSVItemCompositeWriter<SyntheticRow> compositeWriter;
+
+	@Setup(Level.Trial)
+	public void createChunk() {
+		chunk = SyntheticData.rows(chunkSize, columns, valueWidth);
+		processor = new CSVRowProcessor<>(i -> i);
+	}
+
+	// the writers are reopened every iteration so the output files do not grow for the whole trial
+	@Setup(Level.Iteration)
+	public void openWriters() throws IOException {
+		String[] fields = SyntheticData.fields(columns);
+		String header = String.join(";", fields);
+		outputFile = File.createTempFile("bench_writer", ".csv");
+		secondOutputFile = File.createTempFile("bench_composite", ".csv");
+
+		writer = new CSVFlatFileItemWriter<>(outputFile, false, fields, header, "");
+		writer.open(new ExecutionContext());
+
+		secondWriter = new CSVFlatFileItemWriter<>(secondOutputFile, false, fields, header, "");
+		compositeWriter = new CSVItemCompositeWriter<>(Arrays.asList(secondWriter));
+		compositeWriter.open(new ExecutionContext());
+	}
+
+	@TearDown(Level.Iteration)
+	public void closeWriters() {
+		writer.close();
+		compositeWriter.close();
+		outputFile.delete();
+		secondOutputFile.delete();
+	}
+
+	@Benchmark
+	public void flatFileWriterChunk() throws Exception {
+		writer.write(chunk);
+	}
+
+	@Benchmark
+	public void compositeWriterChunk() throws Exception {
+		compositeWriter.write(chunk);
+	}
+
+	@Benchmark
+	public int processorChunk() throws Exception {
+		int processed = 0;
+		for (SyntheticRow row : chunk) {
+			if (processor.process(row) != null) {
+				processed++;
+			}
+		}
+		return processed;
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.synergensolutions.sbsservice.common.batch.processor.CSVRowProcessor;
+import com.synergensolutions.sbsservice.reports.reader.DBPagingReader;
+import com.synergensolutions.sbsservice.reports.reader.DBReader;
+import com.synergensolutions.sbsservice.reports.writer.CSVFlatFileItemWriter;
+
+// end to end reader -> processor -> writer loop against an embedded H2 database, one invocation exports the table.
+// The database is file backed so the 10M row case is not held on the benchmark heap
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class DBPipelineBenchmark {
+
+	private static final String TABLE = "synthetic_rows";
+	private static final int INSERT_BATCH_SIZE = 10000;
+
+	@Param({ "10000", "1000000", "10000000" })
+	private long rows;
+
+	@Param({ "5", "21" })
+	private int columns;
+
+	@Param({ "16" })
+	private int valueWidth;
+
+	@Param({ "1000" })
+	private int chunkSize;
+
+	private File databaseDir;
+	private JdbcDataSource dataSource;
+	private String[] fields;
+
+	@Setup(Level.Trial)
+	public void loadTable() throws IOException {
+		fields = SyntheticData.fields(columns);
+		databaseDir = Files.createTempDirectory("bench_pipeline_db").toFile();
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:file:" + new File(databaseDir, "bench_" + rows + "_" + columns).getAbsolutePath()
+				+ ";DB_CLOSE_DELAY=-1");
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE " + TABLE + " (id BIGINT PRIMARY KEY, "
+				+ String.join(" VARCHAR(255), ", fields) + " VARCHAR(255))");
+
+		String insert = "INSERT INTO " + TABLE + " VALUES (?" + ", ?".repeat(columns) + ")";
+		Iterator<List<String>> values = SyntheticData.values(rows, columns, valueWidth);
+		List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+		long id = 0;
+		while (values.hasNext()) {
+			List<String> row = values.next();
+			Object[] args = new Object[columns + 1];
+			args[0] = id++;
+			for (int i = 0; i < columns; i++) {
+				args[i + 1] = row.get(i);
+			}
+			batch.add(args);
+			if (batch.size() == INSERT_BATCH_SIZE || !values.hasNext()) {
+				jdbcTemplate.batchUpdate(insert, batch);
+				batch.clear();
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void dropTable() throws IOException {
+		new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS DELETE FILES");
+		deleteQuietly(databaseDir);
+	}
+
+	@Benchmark
+	public long cursorReaderToCSV() throws Exception {
+		return export(new DBReader<>(dataSource, "SELECT * FROM " + TABLE,
+				new BeanPropertyRowMapper<>(SyntheticRow.class)));
+	}
+
+	@Benchmark
+	public long cursorReaderGeneratedMapperToCSV() throws Exception {
+		return export(new DBReader<>(dataSource, "SELECT * FROM " + TABLE, SyntheticRow.class));
+	}
+
+	@Benchmark
+	public long pagingReaderToCSV() throws Exception {
+		DBPagingReader<SyntheticRow> reader = new DBPagingReader<>(dataSource, "SELECT *", "FROM " + TABLE, "id",
+				chunkSize, chunkSize, new BeanPropertyRowMapper<>(SyntheticRow.class));
+		// builds the paging queries, done by the container for reader beans
+		reader.afterPropertiesSet();
+		return export(reader);
+	}
+
+	private long export(ItemStreamReader<SyntheticRow> reader) throws Exception {
+		CSVRowProcessor<SyntheticRow, SyntheticRow> processor = new CSVRowProcessor<>(i -> i);
+		File outputFile = File.createTempFile("bench_pipeline", ".csv");
+		CSVFlatFileItemWriter<SyntheticRow> writer = new CSVFlatFileItemWriter<>(outputFile, false, fields,
+				String.join(";", fields), "");
+
+		long count = 0;
+		reader.open(new ExecutionContext());
+		writer.open(new ExecutionContext());
+		try {
+			List<SyntheticRow> chunk = new ArrayList<>(chunkSize);
+			SyntheticRow row;
+			while ((row = reader.read()) != null) {
+				chunk.add(processor.process(row));
+				if (chunk.size() == chunkSize) {
+					count += flush(writer, chunk);
+				}
+			}
+			count += flush(writer, chunk);
+		} finally {
+			reader.close();
+			writer.close();
+			deleteQuietly(outputFile);
+		}
+		return count;
+	}
+
+	private int flush(CSVFlatFileItemWriter<SyntheticRow> writer, List<SyntheticRow> chunk) throws Exception {
+		int size = chunk.size();
+		if (size > 0) {
+			writer.write(chunk);
+			chunk.clear();
+		}
+		return size;
+	}
+
+	private void deleteQuietly(File file) throws IOException {
+		Files.deleteIfExists(file.toPath());
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.synergensolutions.sbsservice.common.batch.reader.HttpPageReader;
+
+// HttpPageReader against a local stub server that answers GET /rows?page=&size= with one row per line after a fixed
+// latency, prefetchPages=1 is the sequential baseline
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class HttpPageReaderBenchmark {
+
+	private static final int MAX_ATTEMPTS = 3;
+	private static final long BACK_OFF_MILLIS = 50;
+
+	@Param({ "100000" })
+	private int rows;
+
+	@Param({ "500" })
+	private int pageSize;
+
+	@Param({ "1", "4", "8" })
+	private int prefetchPages;
+
+	@Param({ "20" })
+	private long latencyMillis;
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private HttpClient httpClient;
+	private URI endpoint;
+
+	@Setup(Level.Trial)
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/rows", this::servePage);
+		serverExecutor = Executors.newFixedThreadPool(16);
+		server.setExecutor(serverExecutor);
+		server.start();
+		httpClient = HttpClient.newHttpClient();
+		endpoint = URI.create("http://localhost:" + server.getAddress().getPort() + "/rows");
+	}
+
+	@TearDown(Level.Trial)
+	public void stopServer() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public long readAllPages() throws Exception {
+		HttpPageReader<String> reader = new HttpPageReader<>(this::fetchPage, pageSize, prefetchPages, MAX_ATTEMPTS,
+				BACK_OFF_MILLIS);
+		long count = 0;
+		reader.open(new ExecutionContext());
+		try {
+			while (reader.read() != null) {
+				count++;
+			}
+		} finally {
+			reader.close();
+		}
+		return count;
+	}
+
+	private List<String> fetchPage(int page, int size) throws Exception {
+		HttpResponse<String> response = httpClient.send(
+				HttpRequest.newBuilder(URI.create(endpoint + "?page=" + page + "&size=" + size)).build(),
+				HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IOException("Page " + page + " failed with status " + response.statusCode());
+		}
+		List<String> items = new ArrayList<>(size);
+		for (String line : response.body().split("\n")) {
+			if (!line.isEmpty()) {
+				items.add(line);
+			}
+		}
+		return items;
+	}
+
+	private void servePage(HttpExchange exchange) throws IOException {
+		int page = 0;
+		int size = 0;
+		for (String parameter : exchange.getRequestURI().getQuery().split("&")) {
+			String[] pair = parameter.split("=");
+			if ("page".equals(pair[0])) {
+				page = Integer.parseInt(pair[1]);
+			} else if ("size".equals(pair[0])) {
+				size = Integer.parseInt(pair[1]);
+			}
+		}
+
+		try {
+			Thread.sleep(latencyMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		StringBuilder body = new StringBuilder();
+		for (long row = (long) page * size; row < Math.min(rows, (long) (page + 1) * size); row++) {
+			body.append("row-").append(row).append('\n');
+		}
+		byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream responseBody = exchange.getResponseBody()) {
+			responseBody.write(bytes);
+		}
+	}
+
+}
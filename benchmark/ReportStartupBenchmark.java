@@ -0,0 +1,127 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.SimpleJob;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import com.synergensolutions.sbsservice.common.batch.config.ReportJobLazyInitPostProcessor;
+import com.synergensolutions.sbsservice.common.batch.launch.ReportJobRegistry;
+
+// context startup with reportTypes job configs, each declaring a job of stepsPerJob steps and a bean holding
+// payloadBytes for the readers and writers of the job. The gc profiler of BenchmarkRunner shows the allocation, the
+// lazy case should stay flat as reportTypes grows and pay for one job on the first launch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ReportStartupBenchmark {
+
+	@Param({ "11", "50" })
+	private int reportTypes;
+
+	@Param({ "4" })
+	private int stepsPerJob;
+
+	@Param({ "262144" })
+	private int payloadBytes;
+
+	@Param({ "false", "true" })
+	private boolean lazy;
+
+	@Benchmark
+	public GenericApplicationContext startup() {
+		GenericApplicationContext context = createContext();
+		context.refresh();
+		context.close();
+		return context;
+	}
+
+	@Benchmark
+	public Job startupAndFirstLaunch() {
+		GenericApplicationContext context = createContext();
+		context.refresh();
+		try {
+			return context.getBean(ReportJobRegistry.class).getJob("ReportJob0");
+		} finally {
+			context.close();
+		}
+	}
+
+	private GenericApplicationContext createContext() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("benchmark", Map.of("report.jobs.lazy", String.valueOf(lazy))));
+		context.registerBean(ReportJobLazyInitPostProcessor.class);
+		context.registerBean(ReportJobRegistry.class, () -> new ReportJobRegistry(context.getBeanFactory()));
+
+		for (int i = 0; i < reportTypes; i++) {
+			String configName = "reportJobConfig" + i;
+			String jobName = "ReportJob" + i;
+			context.registerBean(configName, SyntheticJobConfig.class,
+					() -> new SyntheticJobConfig(jobName, stepsPerJob, payloadBytes));
+			context.registerBeanDefinition(jobName, factoryMethod(configName, "job"));
+			context.registerBeanDefinition(jobName + "Payload", factoryMethod(configName, "payload"));
+		}
+		return context;
+	}
+
+	private static RootBeanDefinition factoryMethod(String factoryBeanName, String factoryMethodName) {
+		RootBeanDefinition beanDefinition = new RootBeanDefinition();
+		beanDefinition.setFactoryBeanName(factoryBeanName);
+		beanDefinition.setFactoryMethodName(factoryMethodName);
+		return beanDefinition;
+	}
+
+	public static class SyntheticJobConfig {
+
+		private final String jobName;
+		private final int steps;
+		private final int payloadBytes;
+
+		public SyntheticJobConfig(String jobName, int steps, int payloadBytes) {
+			this.jobName = jobName;
+			this.steps = steps;
+			this.payloadBytes = payloadBytes;
+		}
+
+		public Job job() {
+			List<Step> jobSteps = new ArrayList<>(steps);
+			for (int i = 0; i < steps; i++) {
+				TaskletStep step = new TaskletStep(jobName + "Step" + i);
+				step.setTasklet((contribution, chunkContext) -> RepeatStatus.FINISHED);
+				jobSteps.add(step);
+			}
+			SimpleJob job = new SimpleJob(jobName);
+			job.setSteps(jobSteps);
+			return job;
+		}
+
+		public byte[] payload() {
+			return new byte[payloadBytes];
+		}
+
+	}
+
+}
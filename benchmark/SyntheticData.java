@@ -0,0 +1,118 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+
+// deterministic row generators shared by the benchmarks, the seed is fixed so every run sees the same data
+final class SyntheticData {
+
+	private static final long SEED = 42L;
+	private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 "
+			.toCharArray();
+
+	private SyntheticData() {
+	}
+
+	static String[] fields(int columns) {
+		return Arrays.copyOf(SyntheticRow.FIELDS, columns);
+	}
+
+	static List<SyntheticRow> rows(int count, int columns, int valueWidth) {
+		List<SyntheticRow> rows = new ArrayList<>(count);
+		Iterator<List<String>> values = values(count, columns, valueWidth);
+		while (values.hasNext()) {
+			rows.add(toRow(values.next()));
+		}
+		return rows;
+	}
+
+	static Iterator<List<String>> values(long count, int columns, int valueWidth) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		return new Iterator<List<String>>() {
+			private long produced;
+
+			@Override
+			public boolean hasNext() {
+				return produced < count;
+			}
+
+			@Override
+			public List<String> next() {
+				produced++;
+				List<String> row = new ArrayList<>(columns);
+				for (int i = 0; i < columns; i++) {
+					row.add(value(random, valueWidth));
+				}
+				return row;
+			}
+		};
+	}
+
+	static File csvFile(long count, int columns, int valueWidth) throws IOException {
+		File csvFile = File.createTempFile("bench_" + count + "_" + columns, ".csv");
+		csvFile.deleteOnExit();
+		try (BufferedWriter writer = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8)) {
+			writer.write(String.join(",", fields(columns)));
+			writer.newLine();
+			Iterator<List<String>> values = values(count, columns, valueWidth);
+			while (values.hasNext()) {
+				writer.write(String.join(",", values.next()));
+				writer.newLine();
+			}
+		}
+		return csvFile;
+	}
+
+	static BeanWrapperFieldSetMapper<SyntheticRow> fieldSetMapper() {
+		BeanWrapperFieldSetMapper<SyntheticRow> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
+		fieldSetMapper.setTargetType(SyntheticRow.class);
+		return fieldSetMapper;
+	}
+
+	private static SyntheticRow toRow(List<String> values) {
+		SyntheticRow row = new SyntheticRow();
+		String[] target = new String[SyntheticRow.FIELDS.length];
+		values.toArray(target);
+		row.setC0(target[0]);
+		row.setC1(target[1]);
+		row.setC2(target[2]);
+		row.setC3(target[3]);
+		row.setC4(target[4]);
+		row.setC5(target[5]);
+		row.setC6(target[6]);
+		row.setC7(target[7]);
+		row.setC8(target[8]);
+		row.setC9(target[9]);
+		row.setC10(target[10]);
+		row.setC11(target[11]);
+		row.setC12(target[12]);
+		row.setC13(target[13]);
+		row.setC14(target[14]);
+		row.setC15(target[15]);
+		row.setC16(target[16]);
+		row.setC17(target[17]);
+		row.setC18(target[18]);
+		row.setC19(target[19]);
+		row.setC20(target[20]);
+		return row;
+	}
+
+	private static String value(SplittableRandom random, int width) {
+		char[] chars = new char[width];
+		for (int i = 0; i < width; i++) {
+			chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+		}
+		return new String(chars);
+	}
+
+}
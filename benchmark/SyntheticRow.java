@@ -0,0 +1,33 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import lombok.Data;
+
+@Data
+public class SyntheticRow {
+
+	public static final String[] FIELDS = new String[] { "c0", "c1", "c2", "c3", "c4", "c5", "c6", "c7", "c8", "c9",
+			"c10", "c11", "c12", "c13", "c14", "c15", "c16", "c17", "c18", "c19", "c20" };
+
+	private String c0;
+	private String c1;
+	private String c2;
+	private String c3;
+	private String c4;
+	private String c5;
+	private String c6;
+	private String c7;
+	private String c8;
+	private String c9;
+	private String c10;
+	private String c11;
+	private String c12;
+	private String c13;
+	private String c14;
+	private String c15;
+	private String c16;
+	private String c17;
+	private String c18;
+	private String c19;
+	private String c20;
+
+}
@@ -0,0 +1,44 @@
+package com.synergensolutions.sbsservice.common.batch.benchmark;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.synergensolutions.sbsservice.reports.writer.XSSFExcelWriter;
+
+// xlsx sheets are limited to 1,048,576 rows, so the 10M row case does not apply here
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class XSSFExcelWriterBenchmark {
+
+	@Param({ "10000", "1000000" })
+	private long rows;
+
+	@Param({ "5", "21" })
+	private int columns;
+
+	@Param({ "8", "32" })
+	private int valueWidth;
+
+	@Benchmark
+	public void streamingWrite() {
+		new XSSFExcelWriter("bench", "Benchmark", Arrays.asList(SyntheticData.fields(columns)),
+				SyntheticData.values(rows, columns, valueWidth), 100).write(OutputStream.nullOutputStream());
+	}
+
+}